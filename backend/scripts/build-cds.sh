@@ -0,0 +1,34 @@
+#!/usr/bin/env bash
+# Сборка архива AppCDS по обучающему запуску
+# Jar распаковывается (CDS работает только с распакованным classpath), приложение
+# стартует до обновления контекста и завершается, JVM сохраняет загруженные классы в app.jsa.
+# Использование: scripts/build-cds.sh [профили]   (по умолчанию fast,loadtest)
+# Запуск с архивом:
+#   java -XX:SharedArchiveFile=target/cds/app.jsa -jar target/cds/hdfs-booking-backend-1.0.0.jar
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+PROFILES="${1:-fast,loadtest}"
+JAR=target/hdfs-booking-backend-1.0.0.jar
+OUT=target/cds
+
+if [ ! -f "$JAR" ]; then
+    echo "Нет $JAR - сначала mvn package" >&2
+    exit 1
+fi
+
+rm -rf "$OUT"
+java -Djarmode=tools -jar "$JAR" extract --destination "$OUT"
+
+# Для сборки с AOT (mvn -Paot package) обучающий запуск тоже должен быть с AOT
+AOT_FLAG=""
+if [ -d target/spring-aot ]; then
+    AOT_FLAG="-Dspring.aot.enabled=true"
+fi
+
+java -XX:ArchiveClassesAtExit="$OUT/app.jsa" $AOT_FLAG \
+    -Dspring.context.exit=onRefresh \
+    -jar "$OUT/$(basename "$JAR")" \
+    --spring.profiles.active="$PROFILES"
+
+echo "Архив CDS: $OUT/app.jsa ($(du -h "$OUT/app.jsa" | cut -f1))"
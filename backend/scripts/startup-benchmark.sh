@@ -0,0 +1,68 @@
+#!/usr/bin/env bash
+# Замер времени до первого успешного ответа (/api/health) для вариантов запуска:
+#   default  - обычный запуск
+#   fast     - профиль fast (фоновое подключение к HDFS, без тестовых пользователей)
+#   fast-cds - профиль fast и архив AppCDS (scripts/build-cds.sh)
+#   fast-aot - профиль fast, AOT и CDS (сборка mvn -Paot package)
+# Все варианты запускаются на локальной ФС (профиль loadtest), чтобы не зависеть от кластера.
+# Использование: scripts/startup-benchmark.sh [число запусков] [варианты...]
+set -uo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS="${1:-5}"
+shift || true
+MODES=("$@")
+if [ ${#MODES[@]} -eq 0 ]; then
+    MODES=(default fast fast-cds fast-aot)
+fi
+
+PORT=18080
+JAR=target/hdfs-booking-backend-1.0.0.jar
+CDS_JAR=target/cds/hdfs-booking-backend-1.0.0.jar
+CDS_ARCHIVE=target/cds/app.jsa
+
+now_ms() {
+    date +%s%3N
+}
+
+command_for() {
+    case "$1" in
+        default)  echo "java -jar $JAR --spring.profiles.active=loadtest" ;;
+        fast)     echo "java -jar $JAR --spring.profiles.active=fast,loadtest" ;;
+        fast-cds) echo "java -XX:SharedArchiveFile=$CDS_ARCHIVE -jar $CDS_JAR --spring.profiles.active=fast,loadtest" ;;
+        fast-aot) echo "java -XX:SharedArchiveFile=$CDS_ARCHIVE -Dspring.aot.enabled=true -jar $CDS_JAR --spring.profiles.active=fast,loadtest" ;;
+    esac
+}
+
+printf "%-10s %8s %8s %8s\n" "mode" "min,ms" "median" "max"
+for mode in "${MODES[@]}"; do
+    if [[ "$mode" == fast-cds || "$mode" == fast-aot ]] && [ ! -f "$CDS_ARCHIVE" ]; then
+        echo "$mode: нет $CDS_ARCHIVE, пропуск" >&2
+        continue
+    fi
+    if [ "$mode" == fast-aot ] && [ ! -d target/spring-aot ]; then
+        echo "$mode: jar собран без AOT (mvn -Paot package), пропуск" >&2
+        continue
+    fi
+
+    times=()
+    for ((run = 1; run <= RUNS; run++)); do
+        started=$(now_ms)
+        $(command_for "$mode") --server.port=$PORT > "target/startup-$mode.log" 2>&1 &
+        pid=$!
+        until curl -sf "http://localhost:$PORT/api/health" > /dev/null 2>&1; do
+            if ! kill -0 "$pid" 2>/dev/null; then
+                echo "$mode: процесс завершился, см. target/startup-$mode.log" >&2
+                break
+            fi
+            sleep 0.02
+        done
+        times+=($(( $(now_ms) - started )))
+        kill "$pid" 2>/dev/null
+        wait "$pid" 2>/dev/null
+    done
+
+    sorted=($(printf "%s\n" "${times[@]}" | sort -n))
+    count=${#sorted[@]}
+    printf "%-10s %8s %8s %8s\n" "$mode" "${sorted[0]}" "${sorted[$((count / 2))]}" "${sorted[$((count - 1))]}"
+done
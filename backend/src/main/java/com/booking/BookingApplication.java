@@ -2,13 +2,16 @@ package com.booking;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Точка входа в Spring Boot приложение
  * Запускает встроенный Tomcat и инициализирует все компоненты
+ * Фоновые задачи (очистка отменённых бронирований) выполняются через @Scheduled
  */
 
 @SpringBootApplication
+@EnableScheduling
 public class BookingApplication {
     public static void main(String[] args) {
         SpringApplication.run(BookingApplication.class, args);
@@ -0,0 +1,41 @@
+package com.booking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * AsyncWebConfig - пул для потоковых ответов (StreamingResponseBody)
+ * Долгие выгрузки выполняются здесь, а не в потоках Tomcat. Размер пула
+ * ограничивает число одновременных выгрузок; лишние запросы отклоняются
+ */
+@Configuration
+public class AsyncWebConfig implements WebMvcConfigurer {
+
+    @Value("${booking.export.max-concurrent:4}")
+    private int maxConcurrent;
+
+    // Время на одну выгрузку, мс
+    @Value("${booking.export.timeout-ms:3600000}")
+    private long timeoutMs;
+
+    @Bean
+    public ThreadPoolTaskExecutor streamingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("export-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingExecutor());
+        configurer.setDefaultTimeout(timeoutMs);
+    }
+}
@@ -0,0 +1,28 @@
+package com.booking.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * HttpCacheConfig - ETag для списков, которые фронтенд запрашивает повторно
+ * ETag считается по телу ответа; если он совпадает с If-None-Match клиента,
+ * отправляется 304 без тела. Заголовок ETag открыт для фронтенда в @CrossOrigin
+ */
+@Configuration
+public class HttpCacheConfig {
+
+    /**
+     * Регистрация фильтра для каталога мест и списков бронирований
+     * @return зарегистрированный фильтр
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> etagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(new ShallowEtagHeaderFilter());
+        registrationBean.addUrlPatterns("/api/workplaces", "/api/bookings", "/api/bookings/by-place");
+
+        return registrationBean;
+    }
+}
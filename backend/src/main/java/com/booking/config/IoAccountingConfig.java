@@ -0,0 +1,29 @@
+package com.booking.config;
+
+import com.booking.service.IoAccountingService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * IoAccountingConfig - регистрация фильтра учёта обращений к хранилищу
+ * Отключается свойством booking.io.accounting.enabled=false
+ */
+@Configuration
+@ConditionalOnProperty(name = "booking.io.accounting.enabled", havingValue = "true", matchIfMissing = true)
+public class IoAccountingConfig {
+
+    /**
+     * Регистрация фильтра для всех запросов к /api/*
+     * @return зарегистрированный фильтр
+     */
+    @Bean
+    public FilterRegistrationBean<IoAccountingFilter> ioAccountingFilter(IoAccountingService accountingService) {
+        FilterRegistrationBean<IoAccountingFilter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(new IoAccountingFilter(accountingService));
+        registrationBean.addUrlPatterns("/api/*");
+
+        return registrationBean;
+    }
+}
@@ -0,0 +1,64 @@
+package com.booking.config;
+
+import com.booking.service.IoAccountingService;
+import com.booking.util.IoBudget;
+import com.booking.util.IoContext;
+import com.booking.util.IoStats;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import java.io.IOException;
+
+/**
+ * IoAccountingFilter - учёт обращений к хранилищу для каждого запроса
+ * Открывает IoContext на время обработки, добавляет к ответу заголовок
+ * X-Storage-IO (rpc=...;exists=...;open=...) и передаёт счётчики в сводку
+ * по эндпоинтам. Тело ответа буферизуется, чтобы заголовок можно было
+ * добавить после обработки; потоковая выгрузка не учитывается
+ */
+public class IoAccountingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Storage-IO";
+    public static final String BUDGET_HEADER = "X-Storage-IO-Budget";
+    // Атрибут запроса со счётчиками IoStats (для проверок бюджета в тестах)
+    public static final String STATS_ATTRIBUTE = IoAccountingFilter.class.getName() + ".STATS";
+
+    private final IoAccountingService accountingService;
+
+    public IoAccountingFilter(IoAccountingService accountingService) {
+        this.accountingService = accountingService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return "OPTIONS".equals(request.getMethod()) || request.getRequestURI().startsWith("/api/export/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        IoStats stats = IoContext.begin();
+        request.setAttribute(STATS_ATTRIBUTE, stats);
+        try {
+            chain.doFilter(request, wrapper);
+        } finally {
+            IoContext.end();
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = IoBudget.key(request.getMethod(),
+            pattern != null ? pattern.toString() : request.getRequestURI());
+        boolean exceeded = accountingService.record(endpoint, stats);
+
+        wrapper.setHeader(HEADER, stats.toHeader());
+        if (exceeded) {
+            wrapper.setHeader(BUDGET_HEADER, "exceeded");
+        }
+        wrapper.copyBodyToResponse();
+    }
+}
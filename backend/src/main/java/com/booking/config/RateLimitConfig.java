@@ -0,0 +1,52 @@
+package com.booking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * RateLimitConfig - регистрация фильтра ограничения частоты запросов
+ * Лимиты задаются в application.properties (booking.ratelimit.*)
+ */
+@Configuration
+@ConditionalOnProperty(name = "booking.ratelimit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    private RateLimitFilter filter;
+
+    /**
+     * Регистрация фильтра для всех запросов к /api/*
+     * @return зарегистрированный фильтр
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            @Value("${booking.ratelimit.global.rps:500}") double globalRate,
+            @Value("${booking.ratelimit.global.burst:1000}") int globalBurst,
+            @Value("${booking.ratelimit.user.rps:10}") double userRate,
+            @Value("${booking.ratelimit.user.burst:20}") int userBurst,
+            @Value("${booking.ratelimit.address.rps:100}") double addressRate,
+            @Value("${booking.ratelimit.address.burst:200}") int addressBurst,
+            @Value("${booking.ratelimit.scan.max-concurrent:8}") int maxConcurrentScans) {
+
+        FilterRegistrationBean<RateLimitFilter> registrationBean = new FilterRegistrationBean<>();
+        filter = new RateLimitFilter(globalRate, globalBurst, userRate, userBurst,
+            addressRate, addressBurst, maxConcurrentScans);
+        registrationBean.setFilter(filter);
+        registrationBean.addUrlPatterns("/api/*");  // Применяется только к REST API
+
+        return registrationBean;
+    }
+
+    /**
+     * Периодическая очистка корзин неактивных клиентов (вне обработки запросов)
+     */
+    @Scheduled(fixedDelayString = "${booking.ratelimit.cleanup-interval-ms:60000}")
+    public void evictIdleClients() {
+        if (filter != null) {
+            filter.evictIdleClients();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.booking.config;
+
+import com.booking.util.TokenBucket;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RateLimitFilter - ограничение частоты запросов и допуск к тяжёлым эндпоинтам
+ * Проверяет корзину пользователя (имя из Authorization: Basic или параметр userId,
+ * без них - IP-адрес), корзину адреса и общую корзину, а для эндпоинтов,
+ * обходящих HDFS, ограничивает число одновременных запросов.
+ * Имя пользователя в фильтре не проверяется, поэтому корзина адреса рассчитана
+ * на всех сотрудников за одним NAT и не даёт обойти лимит, меняя userId.
+ * При перегрузке сразу отвечает 429 с Retry-After, не занимая поток ожиданием
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // GET-эндпоинты, которые читают много файлов из HDFS
+    private static final Set<String> SCAN_ENDPOINTS = Set.of(
+        "/api/bookings",
+        "/api/bookings/by-place",
+        "/api/bookings/history",
+        "/api/reports/utilization"
+    );
+
+    // Сверх этого числа новые клиенты до очистки делят одну общую корзину своего вида
+    private static final int MAX_TRACKED_CLIENTS = 10_000;
+    private static final String OVERFLOW_KEY = "overflow";
+
+    private final TokenBucket globalBucket;
+    private final double userRate;
+    private final int userBurst;
+    private final double addressRate;
+    private final int addressBurst;
+    private final Semaphore scanPermits;
+    private final Map<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+
+    public RateLimitFilter(double globalRate, int globalBurst, double userRate, int userBurst,
+                           double addressRate, int addressBurst, int maxConcurrentScans) {
+        this.globalBucket = new TokenBucket(globalRate, globalBurst);
+        this.userRate = userRate;
+        this.userBurst = userBurst;
+        this.addressRate = addressRate;
+        this.addressBurst = addressBurst;
+        this.scanPermits = new Semaphore(maxConcurrentScans);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        if ("OPTIONS".equals(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        TokenBucket client = bucket("user:", clientIdentity(request), userRate, userBurst);
+        TokenBucket address = bucket("addr:", request.getRemoteAddr(), addressRate, addressBurst);
+        long wait = client.tryAcquire();
+        if (wait == 0) {
+            wait = address.tryAcquire();
+            if (wait == 0) {
+                wait = globalBucket.tryAcquire();
+                if (wait > 0) {
+                    address.refund();
+                }
+            }
+            if (wait > 0) {
+                // Отказ по следующему лимиту не расходует лимит пользователя
+                client.refund();
+            }
+        }
+        if (wait > 0) {
+            reject(response, TimeUnit.NANOSECONDS.toMillis(wait), "Слишком много запросов");
+            return;
+        }
+
+        boolean scan = "GET".equals(request.getMethod()) && SCAN_ENDPOINTS.contains(request.getRequestURI());
+        if (!scan) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (!scanPermits.tryAcquire()) {
+            reject(response, 1000, "Сервер перегружен, повторите запрос позже");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            scanPermits.release();
+        }
+    }
+
+    /**
+     * Удаляет полностью пополненные корзины; вызывается по расписанию (RateLimitConfig)
+     */
+    public void evictIdleClients() {
+        clientBuckets.values().removeIf(TokenBucket::isIdle);
+    }
+
+    /**
+     * Кто отправил запрос: имя из Authorization: Basic, параметр userId
+     * (тело POST-запроса фильтр не читает) или, если их нет, IP-адрес
+     */
+    private static String clientIdentity(HttpServletRequest request) {
+        String user = request.getRemoteUser();
+        if (user == null) {
+            user = basicUsername(request.getHeader("Authorization"));
+        }
+        if (user == null) {
+            user = request.getParameter("userId");
+        }
+        if (user == null || user.isBlank()) {
+            return "ip:" + request.getRemoteAddr();
+        }
+        return user;
+    }
+
+    private static String basicUsername(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, "Basic ", 0, 6)) {
+            return null;
+        }
+        try {
+            String credentials = new String(Base64.getDecoder().decode(authorization.substring(6).trim()),
+                StandardCharsets.UTF_8);
+            int colon = credentials.indexOf(':');
+            return colon > 0 ? credentials.substring(0, colon) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private TokenBucket bucket(String kind, String client, double rate, int burst) {
+        String key = kind + client;
+        TokenBucket bucket = clientBuckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (clientBuckets.size() >= MAX_TRACKED_CLIENTS) {
+            key = kind + OVERFLOW_KEY;
+        }
+        return clientBuckets.computeIfAbsent(key, k -> new TokenBucket(rate, burst));
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterMillis, String message) throws IOException {
+        long retryAfterSeconds = Math.max(1, (retryAfterMillis + 999) / 1000);
+        System.out.println("Запрос отклонён (429), повтор через " + retryAfterSeconds + " с");
+
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setHeader("Access-Control-Allow-Origin", "http://localhost:5500");
+        response.setContentType("application/json");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"success\":false,\"error\":\"" + message + "\"}");
+    }
+}
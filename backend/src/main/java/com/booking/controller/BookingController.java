@@ -1,7 +1,14 @@
 package com.booking.controller;
 
 import com.booking.model.Booking;
+import com.booking.service.ArchiveService;
+import com.booking.service.BookingIndex;
+import com.booking.service.BookingScheduler;
+import com.booking.service.BookingService;
 import com.booking.service.HdfsStorageService;
+import com.booking.service.HoldService;
+import com.booking.service.TeamSeatingService;
+import com.booking.service.UserBookingViewService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import java.time.LocalDate;
@@ -15,39 +22,84 @@ import java.util.*;
  */
 @RestController
 @RequestMapping("/api/bookings")
-@CrossOrigin(origins = "http://localhost:5500")
+@CrossOrigin(origins = "http://localhost:5500", exposedHeaders = "ETag")
 public class BookingController {
 
     @Autowired
     private HdfsStorageService hdfsService;
     
-    private static final String BOOKINGS_DIR = "/user/booking/bookings/";
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private ArchiveService archiveService;
+    
+    @Autowired
+    private UserBookingViewService userBookingViewService;
+    
+    @Autowired
+    private HoldService holdService;
+    
+    @Autowired
+    private BookingScheduler bookingScheduler;
+    
+    @Autowired
+    private BookingIndex bookingIndex;
+    
+    @Autowired
+    private TeamSeatingService teamSeatingService;
+    
+    private static final String BOOKINGS_DIR = BookingService.BOOKINGS_DIR;
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
 
     /**
      * Создание нового бронирования
+     * Если передан holdId, удержание проверяется и снимается после записи;
+     * без удержания бронирование отклоняется, пока слот удерживает другой пользователь
      * @param booking данные бронирования из тела запроса
+     * @param holdId идентификатор удержания из диалога подтверждения (необязательно)
      * @return карта с результатом операции (success, id, message)
      */
     @PostMapping
-    public Map<String, Object> createBooking(@RequestBody Booking booking) {
+    public Map<String, Object> createBooking(@RequestBody Booking booking,
+                                             @RequestParam(required = false) String holdId) {
         try {
             System.out.println("Получено бронирование:");
             System.out.println("  UserID: " + booking.getUserId());
             System.out.println("  Место: " + booking.getWorkplaceId());
             System.out.println("  Дата: " + booking.getDate());
             
-            String bookingId = UUID.randomUUID().toString();
-            booking.setId(bookingId);
-            booking.setStatus("confirmed");
-            
             LocalDate date = LocalDate.parse(booking.getDate(), DATE_FORMAT);
-            String datePath = String.format("/%d/%02d/%02d", 
-                date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+            String bookingId;
             
-            String filePath = BOOKINGS_DIR + datePath + "/booking_" + bookingId + ".json";
-            
-            hdfsService.saveJson(filePath, booking);
+            synchronized (holdService.lockFor(booking.getWorkplaceId(), date)) {
+                boolean holdValid = holdId != null && holdService.matches(holdId, booking.getUserId(),
+                    booking.getWorkplaceId(), date, booking.getStartTime(), booking.getEndTime());
+                
+                if (!holdValid && holdService.isHeldByOther(booking.getWorkplaceId(), date,
+                        booking.getStartTime(), booking.getEndTime(), booking.getUserId())) {
+                    return Map.of(
+                        "success", false,
+                        "error", "Место временно удерживается другим пользователем"
+                    );
+                }
+                
+                // Индекс другого экземпляра мог не знать о бронировании - проверяется партиция дня
+                if (!bookingService.isSlotFreeInStorage(booking.getWorkplaceId(), date,
+                        booking.getStartTime(), booking.getEndTime())) {
+                    return Map.of(
+                        "success", false,
+                        "error", "Место уже забронировано на это время"
+                    );
+                }
+                
+                bookingId = bookingService.createBooking(booking).getId();
+                
+                // Снимается только собственное удержание этого слота, чужой holdId не трогаем
+                if (holdValid) {
+                    holdService.release(holdId);
+                }
+            }
             
             return Map.of(
                 "success", true,
@@ -62,63 +114,25 @@ public class BookingController {
     }
 
     /**
-     * Получение бронирований конкретного пользователя
+     * Получение предстоящих бронирований конкретного пользователя
+     * Ответ берётся из материализованного представления пользователя (одно чтение)
      * @param userId идентификатор пользователя
      * @return список бронирований пользователя
      */
     @GetMapping
     public List<Booking> getMyBookings(@RequestParam String userId) {
-        List<Booking> userBookings = new ArrayList<>();
-        
         try {
             System.out.println("Запрос бронирований для userId: " + userId);
-            System.out.println("BOOKINGS_DIR = " + BOOKINGS_DIR);
-            
-            boolean exists = hdfsService.exists(BOOKINGS_DIR);
-            System.out.println("Папка существует: " + exists);
-            
-            if (!exists) {
-                System.out.println("Папка не найдена");
-                return userBookings;
-            }
-            
-            List<String> files = hdfsService.listFiles(BOOKINGS_DIR);
-            System.out.println("Всего файлов в HDFS: " + files.size());
-            
-            if (files.isEmpty()) {
-                System.out.println("Файлы не найдены");
-            } else {
-                System.out.println("Первые 5 файлов:");
-                files.stream().limit(5).forEach(f -> System.out.println("  " + f));
-            }
-            
-            for (String filePath : files) {
-                if (filePath.endsWith(".json")) {
-                    try {
-                        Booking booking = hdfsService.readJson(filePath, Booking.class);
-                        if (booking != null) {
-                            System.out.println("Файл: " + filePath);
-                            System.out.println("  userId в файле: " + booking.getUserId());
-                            
-                            if (userId.equals(booking.getUserId())) {
-                                userBookings.add(booking);
-                                System.out.println("  Бронирование добавлено в список");
-                            }
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Ошибка чтения файла: " + filePath);
-                    }
-                }
-            }
             
+            List<Booking> userBookings = userBookingViewService.getUpcoming(userId);
             System.out.println("Найдено бронирований: " + userBookings.size());
+            return userBookings;
             
         } catch (Exception e) {
             System.err.println("Ошибка при получении бронирований:");
             e.printStackTrace();
+            return new ArrayList<>();
         }
-        
-        return userBookings;
     }
 
     /**
@@ -131,32 +145,15 @@ public class BookingController {
         try {
             System.out.println("Поиск бронирования для отмены, id: " + id);
             
-            List<String> files = hdfsService.listFiles(BOOKINGS_DIR);
-            System.out.println("Всего файлов в HDFS: " + files.size());
-            
-            String foundPath = null;
-            
-            for (String filePath : files) {
-                if (filePath.contains(id) && filePath.endsWith(".json")) {
-                    foundPath = filePath;
-                    System.out.println("Файл найден: " + filePath);
-                    break;
-                }
-            }
+            // Вместо удаления файла записываем статус cancelled (tombstone),
+            // физическая очистка выполняется BookingReaper в фоне
+            Booking cancelled = bookingService.cancelBooking(id);
             
-            if (foundPath != null) {
-                System.out.println("Удаление файла: " + foundPath);
-                boolean deleted = hdfsService.delete(foundPath);
-                
-                if (deleted) {
-                    System.out.println("Бронирование успешно отменено");
-                } else {
-                    System.out.println("Ошибка при удалении файла");
-                }
-                
+            if (cancelled != null) {
+                System.out.println("Бронирование успешно отменено");
                 return Map.of(
-                    "success", deleted,
-                    "message", deleted ? "Бронирование отменено" : "Ошибка при удалении"
+                    "success", true,
+                    "message", "Бронирование отменено"
                 );
             } else {
                 System.out.println("Файл с ID " + id + " не найден");
@@ -176,12 +173,55 @@ public class BookingController {
         }
     }
 
+    /**
+     * Отметка о приходе по бронированию текущего дня
+     * Без отметки место освобождается через booking.noshow.grace-minutes после начала
+     * @param id идентификатор бронирования
+     * @return карта с результатом операции
+     */
+    @PostMapping("/{id}/check-in")
+    public Map<String, Object> checkIn(@PathVariable String id) {
+        try {
+            Booking booking = bookingScheduler.findToday(id);
+            if (booking == null) {
+                return Map.of(
+                    "success", false,
+                    "error", "Отметиться можно только по активному бронированию на сегодня"
+                );
+            }
+            
+            // Та же блокировка, что и у автоматического освобождения места
+            Booking checkedIn;
+            synchronized (holdService.lockFor(booking.getWorkplaceId(),
+                    LocalDate.parse(booking.getDate(), DATE_FORMAT))) {
+                checkedIn = bookingService.checkIn(booking);
+            }
+            if (checkedIn == null) {
+                return Map.of("success", false, "error", "Бронирование не найдено");
+            }
+            
+            System.out.println("Отметка о приходе: " + id);
+            return Map.of(
+                "success", true,
+                "checkedInAt", checkedIn.getCheckedInAt(),
+                "message", "Приход отмечен"
+            );
+            
+        } catch (Exception e) {
+            System.err.println("Ошибка отметки о приходе:");
+            e.printStackTrace();
+            return Map.of("success", false, "error", String.valueOf(e.getMessage()));
+        }
+    }
+
     /**
      * Проверка доступности места на указанное время
+     * Активные удержания других пользователей считаются занятостью
      * @param workplaceId ID рабочего места
      * @param date дата в формате ДД.ММ.ГГГГ
      * @param startTime время начала
      * @param endTime время окончания
+     * @param userId пользователь, выполняющий проверку (его удержания не учитываются)
      * @return карта с полем available (true/false)
      */
     @GetMapping("/check-availability")
@@ -189,7 +229,8 @@ public class BookingController {
             @RequestParam String workplaceId,
             @RequestParam String date,
             @RequestParam String startTime,
-            @RequestParam String endTime) {
+            @RequestParam String endTime,
+            @RequestParam(required = false) String userId) {
         
         try {
             System.out.println("Проверка доступности:");
@@ -198,32 +239,9 @@ public class BookingController {
             System.out.println("  Время: " + startTime + " - " + endTime);
             
             LocalDate bookingDate = LocalDate.parse(date, DATE_FORMAT);
-            String datePath = String.format("/%d/%02d/%02d", 
-                bookingDate.getYear(), bookingDate.getMonthValue(), bookingDate.getDayOfMonth());
-            
-            String fullPath = BOOKINGS_DIR + datePath;
-            System.out.println("  Путь: " + fullPath);
-            
-            List<String> files = hdfsService.listFiles(fullPath);
-            System.out.println("  Файлов на дату: " + files.size());
             
-            boolean isAvailable = true;
-            
-            for (String filePath : files) {
-                if (filePath.endsWith(".json")) {
-                    Booking booking = hdfsService.readJson(filePath, Booking.class);
-                    if (booking != null && workplaceId.equals(booking.getWorkplaceId())) {
-                        System.out.println("  Найдено бронирование: " + booking.getId());
-                        System.out.println("    Время: " + booking.getStartTime() + " - " + booking.getEndTime());
-                        
-                        if (hasTimeOverlap(startTime, endTime, booking.getStartTime(), booking.getEndTime())) {
-                            System.out.println("  Время пересекается");
-                            isAvailable = false;
-                            break;
-                        }
-                    }
-                }
-            }
+            boolean isAvailable = !holdService.isHeldByOther(workplaceId, bookingDate, startTime, endTime, userId)
+                && bookingService.isSlotFree(workplaceId, bookingDate, startTime, endTime);
             
             System.out.println("  Доступно: " + isAvailable);
             
@@ -243,6 +261,136 @@ public class BookingController {
         }
     }
 
+    /**
+     * Бронирование мест для команды рядом друг с другом одним запросом
+     * Места подбираются по плану этажа (наименьший разброс) и бронируются все сразу
+     * @param request поля userId, branch, date, startTime, endTime, purpose и
+     *                members (список пользователей) или size (все места на userId)
+     * @return карта с полями success, bookings, spread
+     */
+    @PostMapping("/team")
+    public Map<String, Object> bookTeam(@RequestBody Map<String, Object> request) {
+        try {
+            String userId = request.get("userId") != null ? String.valueOf(request.get("userId")) : null;
+            if (userId == null || userId.isBlank()) {
+                return Map.of("success", false, "error", "Нужен userId");
+            }
+            
+            List<String> members = new ArrayList<>();
+            if (request.get("members") instanceof List) {
+                for (Object member : (List<?>) request.get("members")) {
+                    members.add(member != null ? String.valueOf(member) : null);
+                }
+            } else {
+                int size = request.get("size") != null ? Integer.parseInt(String.valueOf(request.get("size"))) : 0;
+                for (int i = 0; i < Math.min(size, teamSeatingService.getMaxSize() + 1); i++) {
+                    members.add(userId);
+                }
+            }
+            
+            String branch = String.valueOf(request.get("branch"));
+            String date = String.valueOf(request.get("date"));
+            String startTime = String.valueOf(request.get("startTime"));
+            String endTime = String.valueOf(request.get("endTime"));
+            String purpose = request.get("purpose") != null ? String.valueOf(request.get("purpose")) : "";
+            System.out.println("Бронирование для команды: " + members.size() + " чел., " + branch + " "
+                + date + " " + startTime + " - " + endTime);
+            
+            TeamSeatingService.Allocation allocation = teamSeatingService.bookTeam(userId, branch,
+                LocalDate.parse(date, DATE_FORMAT), startTime, endTime, members, purpose);
+            
+            if (allocation == null) {
+                return Map.of(
+                    "success", false,
+                    "error", "Недостаточно свободных мест для команды в выбранное время"
+                );
+            }
+            
+            return Map.of(
+                "success", true,
+                "bookings", allocation.getBookings(),
+                "spread", Math.round(allocation.getSpread()),
+                "message", "Места для команды забронированы"
+            );
+            
+        } catch (Exception e) {
+            System.err.println("Ошибка бронирования для команды:");
+            e.printStackTrace();
+            return Map.of("success", false, "error", String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Кратковременное удержание места на время диалога подтверждения
+     * @param request поля userId, workplaceId, date, startTime, endTime
+     * @return карта с полями success, holdId, expiresAt, ttlSeconds
+     */
+    @PostMapping("/hold")
+    public Map<String, Object> holdSlot(@RequestBody Map<String, String> request) {
+        try {
+            String workplaceId = request.get("workplaceId");
+            LocalDate date = LocalDate.parse(request.get("date"), DATE_FORMAT);
+            
+            HoldService.Hold hold = holdService.hold(request.get("userId"), workplaceId, date,
+                request.get("startTime"), request.get("endTime"));
+            
+            if (hold == null) {
+                return Map.of(
+                    "success", false,
+                    "error", "Место занято в выбранное время"
+                );
+            }
+            
+            return Map.of(
+                "success", true,
+                "holdId", hold.getId(),
+                "expiresAt", hold.getExpiresAt().toString(),
+                "ttlSeconds", holdService.getTtlSeconds()
+            );
+            
+        } catch (Exception e) {
+            System.err.println("Ошибка удержания места:");
+            e.printStackTrace();
+            return Map.of("success", false, "error", String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Снятие удержания (пользователь закрыл диалог подтверждения)
+     * @param holdId идентификатор удержания
+     * @return карта с результатом операции
+     */
+    @DeleteMapping("/hold/{holdId}")
+    public Map<String, Object> releaseHold(@PathVariable String holdId) {
+        return Map.of("success", holdService.release(holdId));
+    }
+
+    /**
+     * История бронирований пользователя за период (включая архив прошлых месяцев)
+     * @param userId идентификатор пользователя
+     * @param from начальная дата в формате ДД.ММ.ГГГГ
+     * @param to конечная дата в формате ДД.ММ.ГГГГ
+     * @return список бронирований за период
+     */
+    @GetMapping("/history")
+    public List<Booking> getHistory(
+            @RequestParam String userId,
+            @RequestParam String from,
+            @RequestParam String to) {
+        
+        try {
+            System.out.println("Запрос истории бронирований: " + userId + " " + from + " - " + to);
+            
+            return archiveService.findHistory(userId,
+                LocalDate.parse(from, DATE_FORMAT), LocalDate.parse(to, DATE_FORMAT));
+            
+        } catch (Exception e) {
+            System.err.println("Ошибка при получении истории бронирований:");
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
     /**
      * Получение всех бронирований для конкретного места (блок "Занятые слоты")
      * @param workplaceId ID рабочего места
@@ -255,6 +403,12 @@ public class BookingController {
         try {
             System.out.println("Запрос бронирований для места: " + workplaceId);
             
+            if (bookingIndex.isReady()) {
+                placeBookings = bookingIndex.findActiveByWorkplace(workplaceId);
+                System.out.println("Найдено бронирований (индекс): " + placeBookings.size());
+                return placeBookings;
+            }
+            
             List<String> files = hdfsService.listFiles(BOOKINGS_DIR);
             System.out.println("Всего файлов в HDFS: " + files.size());
             
@@ -267,7 +421,7 @@ public class BookingController {
                             System.out.println("Проверка файла: " + filePath);
                             System.out.println("  workplaceId в файле: " + booking.getWorkplaceId());
                             
-                            if (workplaceId.equals(booking.getWorkplaceId())) {
+                            if (!booking.isCancelled() && workplaceId.equals(booking.getWorkplaceId())) {
                                 System.out.println("  Найдено совпадение");
                                 placeBookings.add(booking);
                             }
@@ -287,16 +441,4 @@ public class BookingController {
         
         return placeBookings;
     }
-
-    /**
-     * Проверка пересечения временных интервалов
-     * @param start1 начало первого интервала
-     * @param end1 конец первого интервала
-     * @param start2 начало второго интервала
-     * @param end2 конец второго интервала
-     * @return true если интервалы пересекаются
-     */
-    private boolean hasTimeOverlap(String start1, String end1, String start2, String end2) {
-        return start1.compareTo(end2) < 0 && start2.compareTo(end1) < 0;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package com.booking.controller;
+
+import com.booking.service.BookingService;
+import com.booking.service.ExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * ExportController - REST-контроллер выгрузки бронирований для BI
+ * Ответ пишется потоком в отдельном пуле (см. AsyncWebConfig) и не занимает
+ * поток обработки запросов на время выгрузки
+ */
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "http://localhost:5500")
+public class ExportController {
+
+    @Autowired
+    private ExportService exportService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Выгрузка всех бронирований (включая отменённые) за период
+     * @param from начальная дата в формате ДД.ММ.ГГГГ
+     * @param to конечная дата в формате ДД.ММ.ГГГГ
+     * @param format ndjson (по умолчанию) или csv
+     * @return поток записей или карта с полем error при неверных параметрах
+     */
+    @GetMapping("/bookings")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(defaultValue = "ndjson") String format) {
+
+        LocalDate fromDate;
+        LocalDate toDate;
+        ExportService.Format exportFormat;
+        try {
+            fromDate = LocalDate.parse(from, BookingService.DATE_FORMAT);
+            toDate = LocalDate.parse(to, BookingService.DATE_FORMAT);
+            exportFormat = ExportService.parseFormat(format);
+        } catch (Exception e) {
+            return badRequest("Неверные параметры выгрузки: " + e.getMessage());
+        }
+        if (toDate.isBefore(fromDate)) {
+            return badRequest("Конечная дата раньше начальной");
+        }
+
+        StreamingResponseBody body = out -> {
+            long started = System.currentTimeMillis();
+            long count = exportService.export(fromDate, toDate, exportFormat, out);
+            System.out.println("Выгрузка " + from + " - " + to + " (" + format + "): " + count
+                + " записей за " + (System.currentTimeMillis() - started) + " мс");
+        };
+
+        boolean csv = exportFormat == ExportService.Format.CSV;
+        String fileName = "bookings_" + fromDate + "_" + toDate + (csv ? ".csv" : ".ndjson");
+        return ResponseEntity.ok()
+            .contentType(csv
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+            .body(body);
+    }
+
+    /**
+     * Ошибка параметров в том же виде, что и у остальных эндпоинтов
+     */
+    private ResponseEntity<StreamingResponseBody> badRequest(String error) {
+        Map<String, Object> body = Map.of("success", false, "error", error);
+        return ResponseEntity.badRequest()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(out -> out.write(objectMapper.writeValueAsBytes(body)));
+    }
+}
@@ -0,0 +1,50 @@
+package com.booking.controller;
+
+import com.booking.service.BookingService;
+import com.booking.service.ReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * ReportController - REST-контроллер для аналитических отчётов
+ * Отчёты о загрузке мест для службы эксплуатации офисов
+ */
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "http://localhost:5500")
+public class ReportController {
+
+    @Autowired
+    private ReportService reportService;
+
+    /**
+     * Загрузка мест по филиалам, типам и часам суток за период
+     * @param from начальная дата в формате ДД.ММ.ГГГГ
+     * @param to конечная дата в формате ДД.ММ.ГГГГ
+     * @param branch филиал (необязательно, по умолчанию все)
+     * @return отчёт о загрузке или карта с полем error
+     */
+    @GetMapping("/utilization")
+    public Map<String, Object> getUtilization(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) String branch) {
+
+        try {
+            long started = System.currentTimeMillis();
+            Map<String, Object> report = reportService.utilization(
+                LocalDate.parse(from, BookingService.DATE_FORMAT),
+                LocalDate.parse(to, BookingService.DATE_FORMAT),
+                branch);
+            System.out.println("Отчёт о загрузке построен за " + (System.currentTimeMillis() - started) + " мс");
+            return report;
+
+        } catch (Exception e) {
+            System.err.println("Ошибка построения отчёта о загрузке:");
+            e.printStackTrace();
+            return Map.of("error", String.valueOf(e.getMessage()));
+        }
+    }
+}
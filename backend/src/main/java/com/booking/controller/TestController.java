@@ -1,6 +1,13 @@
 package com.booking.controller;
 
+import com.booking.service.BookingIndex;
+import com.booking.service.BookingSpool;
+import com.booking.service.HdfsStorageService;
+import com.booking.service.IoAccountingService;
+import com.booking.service.StartupTimer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import java.util.Map;
 
 /**
  * TestController - контроллер для проверки работоспособности бэкенда
@@ -10,6 +17,21 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "http://localhost:5500")
 public class TestController {
     
+    @Autowired
+    private HdfsStorageService hdfsService;
+    
+    @Autowired
+    private BookingIndex bookingIndex;
+    
+    @Autowired
+    private StartupTimer startupTimer;
+    
+    @Autowired
+    private BookingSpool bookingSpool;
+    
+    @Autowired
+    private IoAccountingService ioAccountingService;
+    
     /**
      * Корневой эндпоинт для проверки, что бэкенд запущен
      * @return приветственное сообщение
@@ -28,4 +50,60 @@ public class TestController {
     public String health() {
         return "OK";
     }
-}
\ No newline at end of file
+    
+    /**
+     * Состояние хранилища: счётчики операций, таймауты, повторы,
+     * состояние автомата защиты и статистика hedged reads
+     * @return карта показателей
+     */
+    @GetMapping("/api/health/storage")
+    public Map<String, Object> storageHealth() {
+        return hdfsService.getMetrics();
+    }
+    
+    /**
+     * Размер компактного индекса бронирований в памяти
+     * @return число записей, размер словаря и объём столбцов
+     */
+    @GetMapping("/api/health/index")
+    public Map<String, Object> indexHealth() {
+        return bookingIndex.stats();
+    }
+    
+    /**
+     * Время запуска: до готовности контекста, состояние фонового подключения к HDFS,
+     * признаки AOT и CDS
+     * @return карта показателей запуска
+     */
+    @GetMapping("/api/health/startup")
+    public Map<String, Object> startupHealth() {
+        return startupTimer.report();
+    }
+    
+    /**
+     * Состояние локального журнала записей: очередь к переносу в HDFS и последняя ошибка
+     * @return карта показателей журнала
+     */
+    @GetMapping("/api/health/spool")
+    public Map<String, Object> spoolHealth() {
+        return bookingSpool.stats();
+    }
+
+    /**
+     * Обращения к хранилищу по эндпоинтам: среднее и максимум за запрос, бюджет
+     * @return сводка учёта ввода-вывода
+     */
+    @GetMapping("/api/health/io")
+    public Map<String, Object> ioHealth() {
+        return ioAccountingService.snapshot();
+    }
+    
+    /**
+     * Сброс сводки (например, перед замером)
+     */
+    @DeleteMapping("/api/health/io")
+    public Map<String, Object> resetIo() {
+        ioAccountingService.reset();
+        return Map.of("success", true);
+    }
+}
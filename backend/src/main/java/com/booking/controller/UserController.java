@@ -0,0 +1,142 @@
+package com.booking.controller;
+
+import com.booking.model.User;
+import com.booking.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * UserController - REST-контроллер справочника пользователей
+ * Постраничный список с поиском по префиксу и массовый импорт сотрудников.
+ * Оба эндпоинта доступны только администратору: логин и пароль передаются
+ * в заголовке Authorization: Basic
+ */
+@RestController
+@RequestMapping("/api/users")
+@CrossOrigin(origins = "http://localhost:5500")
+public class UserController {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * Страница пользователей в порядке имени (без хешей паролей)
+     * @param prefix префикс имени пользователя (необязательно)
+     * @param after последнее имя предыдущей страницы (необязательно)
+     * @param limit размер страницы (по умолчанию 50, максимум 500)
+     * @param authorization учётные данные администратора (Basic)
+     * @return карта со списком users и курсором next для следующей страницы
+     */
+    @GetMapping
+    public Map<String, Object> listUsers(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            HttpServletResponse response) {
+
+        try {
+            Map<String, Object> denied = requireAdmin(authorization, response);
+            if (denied != null) {
+                return denied;
+            }
+
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            List<User> page = userService.listUsers(prefix, after, pageSize);
+
+            List<Map<String, Object>> users = new ArrayList<>();
+            for (User user : page) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("username", user.getUsername());
+                item.put("name", user.getName());
+                item.put("role", user.getRole());
+                item.put("email", user.getEmail());
+                item.put("createdAt", user.getCreatedAt());
+                users.add(item);
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("users", users);
+            result.put("next", page.size() == pageSize ? page.get(page.size() - 1).getUsername() : null);
+            return result;
+
+        } catch (Exception e) {
+            System.err.println("Ошибка получения списка пользователей:");
+            e.printStackTrace();
+            return Map.of("success", false, "error", String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Массовый импорт пользователей
+     * @param rows список объектов с полями username, password, name, email (роль всегда user)
+     * @param authorization учётные данные администратора (Basic)
+     * @return количество созданных и пропущенных пользователей, ошибки по строкам
+     */
+    @PostMapping("/import")
+    public Map<String, Object> importUsers(
+            @RequestBody List<Map<String, String>> rows,
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            HttpServletResponse response) {
+        try {
+            Map<String, Object> denied = requireAdmin(authorization, response);
+            if (denied != null) {
+                return denied;
+            }
+
+            System.out.println("Импорт пользователей: " + rows.size() + " строк");
+            return userService.importUsers(rows);
+
+        } catch (IllegalArgumentException e) {
+            return Map.of("success", false, "error", e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Ошибка импорта пользователей:");
+            e.printStackTrace();
+            return Map.of("success", false, "error", String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Проверяет учётные данные администратора из заголовка Authorization: Basic
+     * @return null если доступ разрешён, иначе тело ответа с ошибкой (статус 401 или 403 уже выставлен)
+     */
+    private Map<String, Object> requireAdmin(String authorization, HttpServletResponse response) throws IOException {
+        String username = null;
+        String password = null;
+        if (authorization != null && authorization.regionMatches(true, 0, "Basic ", 0, 6)) {
+            try {
+                String decoded = new String(Base64.getDecoder().decode(authorization.substring(6).trim()),
+                    StandardCharsets.UTF_8);
+                int colon = decoded.indexOf(':');
+                if (colon > 0) {
+                    username = decoded.substring(0, colon);
+                    password = decoded.substring(colon + 1);
+                }
+            } catch (IllegalArgumentException e) {
+                // Некорректный Base64 - как отсутствие учётных данных
+            }
+        }
+
+        if (username == null || !userService.authenticate(username, password)) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setHeader("WWW-Authenticate", "Basic realm=\"booking\"");
+            return Map.of("success", false, "error", "Нужна авторизация администратора");
+        }
+        if (!userService.isAdmin(username)) {
+            System.out.println("Отказ в доступе к справочнику пользователей: " + username);
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            return Map.of("success", false, "error", "Доступ только для администратора");
+        }
+        return null;
+    }
+}
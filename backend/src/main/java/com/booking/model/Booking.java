@@ -1,5 +1,7 @@
 package com.booking.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * Booking - модель данных для бронирования
  * Содержит всю информацию о бронировании рабочего места:
@@ -18,6 +20,8 @@ public class Booking {
     private String endTime;           // Время окончания (ЧЧ:ММ)
     private String purpose;           // Цель бронирования
     private String status;            // Статус (confirmed/cancelled)
+    private String cancelledAt;       // Момент отмены (ISO-8601), для очистки отменённых записей
+    private String checkedInAt;       // Момент отметки о приходе (ISO-8601)
     
     /**
      * Конструктор по умолчанию для Jackson
@@ -72,4 +76,16 @@ public class Booking {
     
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
+    
+    public String getCancelledAt() { return cancelledAt; }
+    public void setCancelledAt(String cancelledAt) { this.cancelledAt = cancelledAt; }
+    
+    public String getCheckedInAt() { return checkedInAt; }
+    public void setCheckedInAt(String checkedInAt) { this.checkedInAt = checkedInAt; }
+    
+    /**
+     * Признак отменённого бронирования (tombstone)
+     */
+    @JsonIgnore
+    public boolean isCancelled() { return "cancelled".equals(status); }
 }
\ No newline at end of file
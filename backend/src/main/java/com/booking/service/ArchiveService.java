@@ -0,0 +1,183 @@
+package com.booking.service;
+
+import com.booking.model.Booking;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * ArchiveService - архивный слой для прошедших бронирований
+ * Дни старше горизонта переносятся из BOOKINGS_DIR в сжатые месячные файлы
+ * ARCHIVE_DIR/yyyy/MM.ndjson.gz, поэтому горячие запросы обходят только текущее окно.
+ * Исторические запросы читают архив по требованию, отбрасывая месяцы вне диапазона
+ */
+@Service
+public class ArchiveService {
+
+    public static final String ARCHIVE_DIR = "/user/booking/archive/";
+
+    @Autowired
+    private HdfsStorageService hdfsService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    // Бронирования старше этого количества дней уходят в архив
+    @Value("${booking.archive.horizon-days:90}")
+    private int horizonDays;
+
+    /**
+     * Путь к месячному архиву
+     */
+    public static String monthArchivePath(YearMonth month) {
+        return ARCHIVE_DIR + String.format("%d/%02d.ndjson.gz", month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * Первый день, который ещё хранится в горячем окне
+     */
+    public LocalDate horizon() {
+        return LocalDate.now().minusDays(horizonDays);
+    }
+
+    /**
+     * Периодический перенос старых дней в архив
+     */
+    @Scheduled(fixedDelayString = "${booking.archive.interval-ms:86400000}",
+               initialDelayString = "${booking.archive.initial-delay-ms:120000}")
+    public void archiveOldDays() {
+        try {
+            int archived = archiveBefore(horizon());
+            System.out.println("Архивация бронирований: перенесено дней " + archived);
+        } catch (Exception e) {
+            System.err.println("Ошибка архивации бронирований: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Переносит все дневные партиции раньше указанной даты в месячные архивы.
+     * Архив месяца перезаписывается один раз за проход, затем удаляются папки дней
+     * @param horizon первая дата, которая остаётся в горячем окне
+     * @return количество перенесённых дней
+     */
+    public int archiveBefore(LocalDate horizon) throws IOException {
+        Map<YearMonth, List<LocalDate>> daysByMonth = new TreeMap<>();
+
+        for (String year : hdfsService.listDirectories(BookingService.BOOKINGS_DIR)) {
+            for (String month : hdfsService.listDirectories(BookingService.BOOKINGS_DIR + year)) {
+                for (String day : hdfsService.listDirectories(BookingService.BOOKINGS_DIR + year + "/" + month)) {
+                    LocalDate date;
+                    try {
+                        date = LocalDate.of(Integer.parseInt(year), Integer.parseInt(month), Integer.parseInt(day));
+                    } catch (Exception e) {
+                        continue;
+                    }
+                    if (date.isBefore(horizon)) {
+                        daysByMonth.computeIfAbsent(YearMonth.from(date), m -> new ArrayList<>()).add(date);
+                    }
+                }
+            }
+        }
+
+        int archivedDays = 0;
+        for (Map.Entry<YearMonth, List<LocalDate>> entry : daysByMonth.entrySet()) {
+            String archivePath = monthArchivePath(entry.getKey());
+
+            // Слияние с уже существующим архивом месяца (дубликаты по id отбрасываются)
+            Map<String, Booking> merged = new LinkedHashMap<>();
+            for (Booking booking : hdfsService.readJsonLinesGzip(archivePath, Booking.class)) {
+                merged.put(booking.getId(), booking);
+            }
+            for (LocalDate date : entry.getValue()) {
+                for (Booking booking : bookingService.readDay(date)) {
+                    merged.put(booking.getId(), booking);
+                }
+            }
+
+            hdfsService.saveJsonLinesGzip(archivePath, new ArrayList<>(merged.values()));
+
+            // Только после успешной записи архива удаляем исходные дни
+            for (LocalDate date : entry.getValue()) {
+                hdfsService.deleteDirectory(BookingService.dayDir(date));
+                archivedDays++;
+            }
+        }
+        return archivedDays;
+    }
+
+    /**
+     * Возвращает бронирования из месячных архивов за указанный диапазон дат.
+     * Читаются только архивы месяцев, пересекающихся с диапазоном
+     * @param from начальная дата (включительно)
+     * @param to конечная дата (включительно)
+     * @return список архивных бронирований
+     */
+    public List<Booking> readArchived(LocalDate from, LocalDate to) throws IOException {
+        List<Booking> result = new ArrayList<>();
+        YearMonth last = YearMonth.from(to);
+
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(last); month = month.plusMonths(1)) {
+            for (Booking booking : hdfsService.readJsonLinesGzip(monthArchivePath(month), Booking.class)) {
+                LocalDate date = LocalDate.parse(booking.getDate(), BookingService.DATE_FORMAT);
+                if (!date.isBefore(from) && !date.isAfter(to)) {
+                    result.add(booking);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * История бронирований пользователя: архив плюс горячее окно за диапазон
+     * @param userId идентификатор пользователя
+     * @param from начальная дата (включительно)
+     * @param to конечная дата (включительно)
+     * @return бронирования, отсортированные по дате и времени начала
+     */
+    public List<Booking> findHistory(String userId, LocalDate from, LocalDate to) throws IOException {
+        Map<String, Booking> found = new LinkedHashMap<>();
+
+        LocalDate hotFrom = horizon();
+        if (from.isBefore(hotFrom)) {
+            for (Booking booking : readArchived(from, to.isBefore(hotFrom) ? to : hotFrom.minusDays(1))) {
+                if (userId.equals(booking.getUserId())) {
+                    found.put(booking.getId(), booking);
+                }
+            }
+        }
+
+        // Дни внутри горячего окна (и ещё не заархивированные дни) читаются из партиций;
+        // пустые месяцы отсекаются одним листингом папки месяца
+        LocalDate start = from.isBefore(hotFrom) ? from : hotFrom;
+        for (YearMonth month = YearMonth.from(start); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            String monthDir = BookingService.BOOKINGS_DIR + String.format("%d/%02d", month.getYear(), month.getMonthValue());
+            for (String day : hdfsService.listDirectories(monthDir)) {
+                LocalDate date;
+                try {
+                    date = month.atDay(Integer.parseInt(day));
+                } catch (Exception e) {
+                    continue;
+                }
+                if (date.isBefore(from) || date.isAfter(to)) {
+                    continue;
+                }
+                for (Booking booking : bookingService.readDay(date)) {
+                    if (userId.equals(booking.getUserId())) {
+                        found.put(booking.getId(), booking);
+                    }
+                }
+            }
+        }
+
+        List<Booking> result = new ArrayList<>(found.values());
+        result.sort(Comparator
+            .comparing((Booking b) -> LocalDate.parse(b.getDate(), BookingService.DATE_FORMAT))
+            .thenComparing(Booking::getStartTime, Comparator.nullsLast(Comparator.naturalOrder())));
+        return result;
+    }
+}
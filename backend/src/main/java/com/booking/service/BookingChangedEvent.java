@@ -0,0 +1,25 @@
+package com.booking.service;
+
+import com.booking.model.Booking;
+
+/**
+ * BookingChangedEvent - событие об изменении бронирования
+ * Публикуется BookingService после успешного создания, отмены или отметки о приходе,
+ * чтобы кэши и производные представления обновлялись инкрементально
+ */
+public class BookingChangedEvent {
+
+    public enum Type { CREATED, CANCELLED, CHECKED_IN }
+
+    private final Booking booking;
+    private final Type type;
+
+    public BookingChangedEvent(Booking booking, Type type) {
+        this.booking = booking;
+        this.type = type;
+    }
+
+    public Booking getBooking() { return booking; }
+
+    public Type getType() { return type; }
+}
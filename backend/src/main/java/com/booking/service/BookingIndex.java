@@ -0,0 +1,905 @@
+package com.booking.service;
+
+import com.booking.model.Booking;
+import com.booking.util.StringDictionary;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * BookingIndex - компактный индекс всех бронирований в памяти
+ * Записи хранятся не объектами Booking, а столбцами примитивных массивов:
+ * дата - номер дня от эпохи (int), время - минуты от полуночи (short), UUID - два long,
+ * userId, workplaceId, название, филиал и цель - коды словаря. Одна запись занимает
+ * около 80 байт (столбцы и хеш-таблица ID) вместо ~700 у объекта Booking с десятью
+ * строками; головы цепочек добавляют от 24 байт на каждую пару (место, день), см. stats().
+ * В Booking запись превращается только на выходе в API.
+ * При старте индекс восстанавливается из последней контрольной точки (CheckpointStore),
+ * после чего перечитываются только файлы, изменённые позже неё; без точки выполняется
+ * полный обход BOOKINGS_DIR. Дальше индекс обновляется по BookingChangedEvent и
+ * периодически сохраняется. Изменения других экземпляров приложения подхватываются
+ * периодическим перечитыванием файлов, изменённых после прошлого обхода.
+ * Записи старше горизонта архива (booking.archive.horizon-days) вытесняются
+ * из памяти и в контрольные точки не попадают.
+ * Пока индекс не загружен, isReady() возвращает false и вызывающий код читает HDFS как раньше
+ */
+@Service
+public class BookingIndex {
+
+    private static final byte FLAG_CANCELLED = 1;
+    private static final byte FLAG_CHECKED_IN = 2;
+    private static final byte FLAG_TEXT_ID = 4;     // ID не UUID: код словаря в idLo
+
+    private static final int NO_ROW = -1;
+
+    private static final int CHECKPOINT_MAGIC = 0x424B4958;    // "BKIX"
+    private static final int CHECKPOINT_VERSION = 1;
+
+    @Autowired
+    private HdfsStorageService hdfsService;
+
+    @Value("${booking.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${booking.index.initial-capacity:1024}")
+    private int initialCapacity;
+
+    @Autowired
+    private CheckpointStore checkpointStore;
+
+    @Autowired
+    private BookingSpool spool;
+
+    @Value("${booking.checkpoint.enabled:true}")
+    private boolean checkpointEnabled;
+
+    // Запас на расхождение часов приложения и NameNode при выборе файлов для повтора
+    @Value("${booking.checkpoint.clock-skew-ms:60000}")
+    private long clockSkewMs;
+
+    // Горизонт архива: более старые дни уходят из BOOKINGS_DIR и не держатся в индексе
+    @Value("${booking.archive.horizon-days:90}")
+    private int horizonDays;
+
+    // Момент начала последнего чтения изменений из HDFS
+    private volatile long lastRefresh;
+
+    private volatile StringDictionary strings = new StringDictionary();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    // Счётчик изменений: контрольная точка пишется, только если он вырос
+    private long version;
+    private long checkpointedVersion;
+
+    // Столбцы: i-я позиция каждого массива - одна запись
+    private long[] idHi;
+    private long[] idLo;
+    private int[] user;
+    private int[] workplace;
+    private int[] workplaceName;
+    private int[] branch;
+    private int[] purpose;
+    private int[] day;
+    private short[] start;
+    private short[] end;
+    private byte[] flags;
+    private long[] cancelledAt;     // микросекунды от эпохи, 0 - нет
+    private long[] checkedInAt;
+    private int[] nextInSlot;       // следующая запись того же места и дня
+    private int[] nextInPlace;      // следующая запись того же места (все дни)
+    private int rows;
+
+    // Хеш-таблица с открытой адресацией: номер записи + 1 по UUID, 0 - пусто
+    private int[] idTable;
+
+    // (место, день) -> первая запись цепочки: открытая адресация по slotKey,
+    // в slotTable номер записи + 1, 0 - пусто
+    private long[] slotKeys;
+    private int[] slotTable;
+    private int slots;
+
+    // Код места -> первая запись цепочки + 1, 0 - нет записей
+    private int[] placeTable;
+
+    public BookingIndex() {
+        allocate(1024);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        lastRefresh = started;
+        try {
+            lock.writeLock().lock();
+            try {
+                if (rows == 0 && initialCapacity > idHi.length) {
+                    allocate(initialCapacity);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            List<String> files = null;
+            if (checkpointEnabled) {
+                files = restoreCheckpoint();
+            }
+            if (files == null) {
+                files = hdfsService.exists(BookingService.BOOKINGS_DIR)
+                    ? hdfsService.listFiles(BookingService.BOOKINGS_DIR)
+                    : new ArrayList<>();
+            }
+
+            for (String filePath : files) {
+                if (!filePath.endsWith(".json")) {
+                    continue;
+                }
+                try {
+                    Booking booking = hdfsService.readJson(filePath, Booking.class);
+                    if (booking != null) {
+                        put(booking);
+                    }
+                } catch (Exception e) {
+                    System.err.println("Ошибка чтения файла: " + filePath);
+                }
+            }
+            // Записи журнала прошлого запуска, ещё не перенесённые в HDFS
+            if (spool.isEnabled()) {
+                for (Booking booking : spool.findInDirectory(BookingService.BOOKINGS_DIR)) {
+                    put(booking);
+                }
+            }
+            evictBefore(horizon());
+            ready = true;
+            System.out.println("Индекс бронирований загружен: " + size() + " записей, прочитано файлов "
+                + files.size() + " за " + (System.currentTimeMillis() - started) + " мс");
+        } catch (Exception e) {
+            System.err.println("Ошибка загрузки индекса бронирований: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Перечитывает файлы, изменённые после прошлого обхода: бронирования и отмены,
+     * записанные другими экземплярами приложения. Читаются только метаданные листинга
+     * и сами изменённые файлы
+     */
+    @Scheduled(fixedDelayString = "${booking.index.refresh-interval-ms:30000}",
+               initialDelayString = "${booking.index.refresh-interval-ms:30000}")
+    public void refresh() {
+        if (!enabled || !ready) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        try {
+            List<String> files = hdfsService.listFilesModifiedAfter(BookingService.BOOKINGS_DIR,
+                refreshedBefore());
+            for (String filePath : files) {
+                if (!filePath.endsWith(".json")) {
+                    continue;
+                }
+                try {
+                    Booking booking = hdfsService.readJson(filePath, Booking.class);
+                    if (booking != null) {
+                        put(booking);
+                    }
+                } catch (Exception e) {
+                    System.err.println("Ошибка чтения файла: " + filePath);
+                }
+            }
+            lastRefresh = started;
+        } catch (Exception e) {
+            System.err.println("Ошибка обновления индекса бронирований: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Периодическое сохранение контрольной точки (если индекс изменился).
+     * Перед сохранением вытесняются дни старше горизонта архива
+     */
+    @Scheduled(fixedDelayString = "${booking.checkpoint.interval-ms:600000}",
+               initialDelayString = "${booking.checkpoint.interval-ms:600000}")
+    public void scheduledCheckpoint() {
+        if (enabled && ready) {
+            evictBefore(horizon());
+        }
+        checkpoint();
+    }
+
+    /**
+     * Контрольная точка при остановке, чтобы следующий старт почти ничего не перечитывал
+     */
+    @PreDestroy
+    public void shutdown() {
+        checkpoint();
+    }
+
+    /**
+     * Сохраняет контрольную точку. Столбцы копируются под блокировкой чтения,
+     * запись на диск и в HDFS идёт уже без блокировки
+     * @return номер точки или -1, если сохранять нечего
+     */
+    public long checkpoint() {
+        if (!enabled || !checkpointEnabled || !ready) {
+            return -1;
+        }
+
+        long watermark;
+        long snapshotVersion;
+        String[] dictionary;
+        int count;
+        long[][] longColumns;
+        int[][] intColumns;
+        short[][] shortColumns;
+        byte[] flagColumn;
+
+        lock.readLock().lock();
+        try {
+            if (version == checkpointedVersion) {
+                return -1;
+            }
+            // Все изменения до этого момента уже применены под блокировкой записи
+            watermark = System.currentTimeMillis();
+            snapshotVersion = version;
+            count = rows;
+            dictionary = strings.toArray();
+            longColumns = new long[][] {
+                Arrays.copyOf(idHi, count), Arrays.copyOf(idLo, count),
+                Arrays.copyOf(cancelledAt, count), Arrays.copyOf(checkedInAt, count)
+            };
+            intColumns = new int[][] {
+                Arrays.copyOf(user, count), Arrays.copyOf(workplace, count), Arrays.copyOf(workplaceName, count),
+                Arrays.copyOf(branch, count), Arrays.copyOf(purpose, count), Arrays.copyOf(day, count)
+            };
+            shortColumns = new short[][] { Arrays.copyOf(start, count), Arrays.copyOf(end, count) };
+            flagColumn = Arrays.copyOf(flags, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        try {
+            long started = System.currentTimeMillis();
+            long sequence = checkpointStore.save(watermark, out -> {
+                out.writeInt(CHECKPOINT_MAGIC);
+                out.writeInt(CHECKPOINT_VERSION);
+                out.writeInt(count);
+                out.writeInt(dictionary.length);
+                for (String value : dictionary) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+                for (long[] column : longColumns) {
+                    for (int i = 0; i < count; i++) out.writeLong(column[i]);
+                }
+                for (int[] column : intColumns) {
+                    for (int i = 0; i < count; i++) out.writeInt(column[i]);
+                }
+                for (short[] column : shortColumns) {
+                    for (int i = 0; i < count; i++) out.writeShort(column[i]);
+                }
+                out.write(flagColumn);
+                out.writeInt(CHECKPOINT_MAGIC);
+            });
+
+            lock.writeLock().lock();
+            try {
+                checkpointedVersion = Math.max(checkpointedVersion, snapshotVersion);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            System.out.println("Контрольная точка индекса " + sequence + ": " + count + " записей за "
+                + (System.currentTimeMillis() - started) + " мс");
+            return sequence;
+        } catch (Exception e) {
+            System.err.println("Ошибка записи контрольной точки индекса: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Восстанавливает индекс из последней контрольной точки
+     * @return файлы, изменённые после точки (их нужно перечитать), или null, если точки нет
+     */
+    private List<String> restoreCheckpoint() {
+        try {
+            CheckpointStore.Checkpoint checkpoint = checkpointStore.loadLatest();
+            if (checkpoint == null) {
+                return null;
+            }
+            restore(checkpoint.getData());
+            System.out.println("Индекс восстановлен из контрольной точки " + checkpoint.getSequence()
+                + ": " + size() + " записей");
+            return hdfsService.listFilesModifiedAfter(BookingService.BOOKINGS_DIR,
+                checkpoint.getWatermark() - clockSkewMs);
+        } catch (Exception e) {
+            System.err.println("Контрольная точка не прочитана, полный обход: " + e.getMessage());
+            lock.writeLock().lock();
+            try {
+                reset(initialCapacity);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return null;
+        }
+    }
+
+    private void restore(ByteBuffer data) throws IOException {
+        if (data.getInt() != CHECKPOINT_MAGIC || data.getInt() != CHECKPOINT_VERSION) {
+            throw new IOException("неизвестный формат контрольной точки");
+        }
+        int count = data.getInt();
+        int dictionarySize = data.getInt();
+
+        lock.writeLock().lock();
+        try {
+            // Изменения, пришедшие до восстановления, будут повторены из файлов
+            reset(Math.max(initialCapacity, count));
+            for (int i = 0; i < dictionarySize; i++) {
+                byte[] bytes = new byte[data.getInt()];
+                data.get(bytes);
+                strings.encode(new String(bytes, StandardCharsets.UTF_8));
+            }
+
+            for (long[] column : new long[][] {idHi, idLo, cancelledAt, checkedInAt}) {
+                data.asLongBuffer().get(column, 0, count);
+                data.position(data.position() + count * Long.BYTES);
+            }
+            for (int[] column : new int[][] {user, workplace, workplaceName, branch, purpose, day}) {
+                data.asIntBuffer().get(column, 0, count);
+                data.position(data.position() + count * Integer.BYTES);
+            }
+            for (short[] column : new short[][] {start, end}) {
+                data.asShortBuffer().get(column, 0, count);
+                data.position(data.position() + count * Short.BYTES);
+            }
+            data.get(flags, 0, count);
+            if (data.getInt() != CHECKPOINT_MAGIC) {
+                throw new IOException("контрольная точка повреждена");
+            }
+
+            // Цепочки и хеш-таблица ID не сохраняются - строятся заново по столбцам
+            rows = count;
+            for (int row = 0; row < count; row++) {
+                link(row);
+            }
+            rehash(idTable.length);
+            version = 0;
+            checkpointedVersion = 0;
+        } catch (RuntimeException e) {
+            throw new IOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reset(int capacity) {
+        strings = new StringDictionary();
+        rows = 0;
+        allocate(capacity);
+    }
+
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (enabled) {
+            put(event.getBooking());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Момент, начиная с которого изменённые файлы могут быть ещё не прочитаны индексом
+     * (начало последнего обхода с запасом на расхождение часов)
+     */
+    public long refreshedBefore() {
+        return lastRefresh - clockSkewMs;
+    }
+
+    /**
+     * Добавляет запись или обновляет существующую с тем же ID.
+     * Отмена и отметка о приходе не откатываются: устаревшая копия, прочитанная
+     * при загрузке после события, не вернёт отменённое бронирование
+     */
+    public void put(Booking booking) {
+        if (booking.getId() == null || booking.getDate() == null
+                || booking.getStartTime() == null || booking.getEndTime() == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            int row = findRow(booking.getId());
+            if (row == NO_ROW) {
+                if (isBeforeHorizon(booking)) {
+                    return;
+                }
+                row = append(booking);
+                version++;
+            }
+            if (booking.isCancelled() && (flags[row] & FLAG_CANCELLED) == 0) {
+                flags[row] |= FLAG_CANCELLED;
+                cancelledAt[row] = toMicros(booking.getCancelledAt());
+                version++;
+            }
+            if (booking.getCheckedInAt() != null && (flags[row] & FLAG_CHECKED_IN) == 0) {
+                flags[row] |= FLAG_CHECKED_IN;
+                checkedInAt[row] = toMicros(booking.getCheckedInAt());
+                version++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Бронирование по ID
+     * @return бронирование или null
+     */
+    public Booking get(String id) {
+        lock.readLock().lock();
+        try {
+            int row = findRow(id);
+            return row == NO_ROW ? null : toBooking(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Проверяет, свободно ли место в интервал [startMinute, endMinute)
+     * @return true если нет подтверждённых пересекающихся бронирований
+     */
+    public boolean isSlotFree(String workplaceId, LocalDate date, int startMinute, int endMinute) {
+        lock.readLock().lock();
+        try {
+            int place = strings.find(workplaceId);
+            if (place == StringDictionary.NONE) {
+                return true;
+            }
+            for (int row = slotHead(slotKey(place, (int) date.toEpochDay())); row != NO_ROW;
+                    row = nextInSlot[row]) {
+                if ((flags[row] & FLAG_CANCELLED) == 0 && start[row] < endMinute && startMinute < end[row]) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Все подтверждённые бронирования места
+     */
+    public List<Booking> findActiveByWorkplace(String workplaceId) {
+        List<Booking> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int place = strings.find(workplaceId);
+            if (place == StringDictionary.NONE) {
+                return result;
+            }
+            int head = place < placeTable.length ? placeTable[place] - 1 : NO_ROW;
+            for (int row = head; row != NO_ROW; row = nextInPlace[row]) {
+                if ((flags[row] & FLAG_CANCELLED) == 0) {
+                    result.add(toBooking(row));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Цепочки идут от новых записей к старым
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Вытесняет записи дней раньше указанной даты. Оставшиеся строки сдвигаются
+     * к началу столбцов, словарь, цепочки и хеш-таблица ID строятся заново
+     * @param horizon первая дата, которая остаётся в индексе
+     * @return количество вытесненных записей
+     */
+    public int evictBefore(LocalDate horizon) {
+        int cutoff = (int) horizon.toEpochDay();
+        lock.writeLock().lock();
+        try {
+            // Столбцы меняются только если есть что вытеснять
+            int evicted = 0;
+            for (int row = 0; row < rows; row++) {
+                if (day[row] < cutoff) {
+                    evicted++;
+                }
+            }
+            if (evicted == 0) {
+                return 0;
+            }
+
+            StringDictionary old = strings;
+            StringDictionary compacted = new StringDictionary();
+            int kept = 0;
+            for (int row = 0; row < rows; row++) {
+                if (day[row] < cutoff) {
+                    continue;
+                }
+                moveRow(row, kept);
+                // Порядок кодирования тот же, что в append
+                if ((flags[kept] & FLAG_TEXT_ID) != 0) {
+                    idLo[kept] = compacted.encode(old.decode((int) idLo[kept]));
+                }
+                user[kept] = compacted.encode(old.decode(user[kept]));
+                workplace[kept] = compacted.encode(old.decode(workplace[kept]));
+                workplaceName[kept] = compacted.encode(old.decode(workplaceName[kept]));
+                branch[kept] = compacted.encode(old.decode(branch[kept]));
+                purpose[kept] = compacted.encode(old.decode(purpose[kept]));
+                kept++;
+            }
+
+            strings = compacted;
+            rows = kept;
+            clearHeads(idTable.length);
+            for (int row = 0; row < rows; row++) {
+                link(row);
+            }
+            rehash(idTable.length);
+            version++;
+            System.out.println("Из индекса вытеснено записей до " + horizon + ": " + evicted);
+            return evicted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Размер индекса: записи, словарь и примерный объём в байтах
+     * (столбцы с хеш-таблицей ID и отдельно головы цепочек)
+     */
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            long bytesPerRow = 8 * 2 + 4 * 6 + 2 * 2 + 1 + 8 * 2 + 4 * 2;
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("ready", ready);
+            stats.put("rows", rows);
+            stats.put("capacity", idHi.length);
+            stats.put("dictionarySize", strings.size());
+            stats.put("columnBytes", bytesPerRow * idHi.length + 4L * idTable.length);
+            stats.put("slots", slots);
+            stats.put("headBytes", (8L + 4) * slotTable.length + 4L * placeTable.length);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int append(Booking booking) {
+        // Разбор до изменения столбцов: ошибка формата не оставит полузаписанную строку
+        int epochDay = (int) LocalDate.parse(booking.getDate(), BookingService.DATE_FORMAT).toEpochDay();
+        short startMinute = (short) BookingService.minuteOfDay(booking.getStartTime());
+        short endMinute = (short) BookingService.minuteOfDay(booking.getEndTime());
+
+        if (rows == idHi.length) {
+            grow(rows * 2);
+        }
+        int row = rows++;
+
+        UUID uuid = parseUuid(booking.getId());
+        if (uuid != null) {
+            idHi[row] = uuid.getMostSignificantBits();
+            idLo[row] = uuid.getLeastSignificantBits();
+        } else {
+            idLo[row] = strings.encode(booking.getId());
+            flags[row] = FLAG_TEXT_ID;
+        }
+        user[row] = strings.encode(booking.getUserId());
+        workplace[row] = strings.encode(booking.getWorkplaceId());
+        workplaceName[row] = strings.encode(booking.getWorkplaceName());
+        branch[row] = strings.encode(booking.getBranch());
+        purpose[row] = strings.encode(booking.getPurpose());
+        day[row] = epochDay;
+        start[row] = startMinute;
+        end[row] = endMinute;
+
+        link(row);
+
+        if (rows * 2 > idTable.length) {
+            rehash(idTable.length * 2);
+        } else {
+            insertId(row);
+        }
+        return row;
+    }
+
+    /**
+     * Добавляет запись в начало цепочек её места и дня
+     */
+    private void link(int row) {
+        int place = workplace[row];
+        if (place == StringDictionary.NONE) {
+            // Запись без места по месту не ищется и в цепочки не попадает
+            nextInSlot[row] = NO_ROW;
+            nextInPlace[row] = NO_ROW;
+            return;
+        }
+        nextInSlot[row] = replaceSlotHead(slotKey(place, day[row]), row);
+        if (place >= placeTable.length) {
+            placeTable = Arrays.copyOf(placeTable, Math.max(place + 1, placeTable.length * 2));
+        }
+        nextInPlace[row] = placeTable[place] - 1;
+        placeTable[place] = row + 1;
+    }
+
+    /**
+     * Первая запись цепочки места и дня
+     * @return номер записи или NO_ROW
+     */
+    private int slotHead(long key) {
+        int mask = slotTable.length - 1;
+        for (int i = hash(key, 0) & mask; slotTable[i] != 0; i = (i + 1) & mask) {
+            if (slotKeys[i] == key) {
+                return slotTable[i] - 1;
+            }
+        }
+        return NO_ROW;
+    }
+
+    /**
+     * Делает запись первой в цепочке места и дня
+     * @return прежняя первая запись или NO_ROW
+     */
+    private int replaceSlotHead(long key, int row) {
+        int mask = slotTable.length - 1;
+        int i = hash(key, 0) & mask;
+        for (; slotTable[i] != 0; i = (i + 1) & mask) {
+            if (slotKeys[i] == key) {
+                int previous = slotTable[i] - 1;
+                slotTable[i] = row + 1;
+                return previous;
+            }
+        }
+        slotKeys[i] = key;
+        slotTable[i] = row + 1;
+        if (++slots * 2 > slotTable.length) {
+            resizeSlots(slotTable.length * 2);
+        }
+        return NO_ROW;
+    }
+
+    private void resizeSlots(int capacity) {
+        long[] oldKeys = slotKeys;
+        int[] oldTable = slotTable;
+        slotKeys = new long[capacity];
+        slotTable = new int[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldTable.length; j++) {
+            if (oldTable[j] != 0) {
+                int i = hash(oldKeys[j], 0) & mask;
+                while (slotTable[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                slotKeys[i] = oldKeys[j];
+                slotTable[i] = oldTable[j];
+            }
+        }
+    }
+
+    /**
+     * Сбрасывает головы цепочек перед их построением заново
+     * @param capacity размер таблицы (степень двойки)
+     */
+    private void clearHeads(int capacity) {
+        slotKeys = new long[capacity];
+        slotTable = new int[capacity];
+        slots = 0;
+        placeTable = new int[64];
+    }
+
+    private Booking toBooking(int row) {
+        Booking booking = new Booking();
+        booking.setId(idOf(row));
+        booking.setUserId(strings.decode(user[row]));
+        booking.setWorkplaceId(strings.decode(workplace[row]));
+        booking.setWorkplaceName(strings.decode(workplaceName[row]));
+        booking.setBranch(strings.decode(branch[row]));
+        booking.setPurpose(strings.decode(purpose[row]));
+        booking.setDate(LocalDate.ofEpochDay(day[row]).format(BookingService.DATE_FORMAT));
+        booking.setStartTime(formatMinute(start[row]));
+        booking.setEndTime(formatMinute(end[row]));
+        boolean cancelled = (flags[row] & FLAG_CANCELLED) != 0;
+        booking.setStatus(cancelled ? "cancelled" : "confirmed");
+        if (cancelled) {
+            booking.setCancelledAt(fromMicros(cancelledAt[row]));
+        }
+        if ((flags[row] & FLAG_CHECKED_IN) != 0) {
+            booking.setCheckedInAt(fromMicros(checkedInAt[row]));
+        }
+        return booking;
+    }
+
+    private String idOf(int row) {
+        if ((flags[row] & FLAG_TEXT_ID) != 0) {
+            return strings.decode((int) idLo[row]);
+        }
+        return new UUID(idHi[row], idLo[row]).toString();
+    }
+
+    private int findRow(String id) {
+        if (id == null) {
+            return NO_ROW;
+        }
+        UUID uuid = parseUuid(id);
+        long hi;
+        long lo;
+        if (uuid != null) {
+            hi = uuid.getMostSignificantBits();
+            lo = uuid.getLeastSignificantBits();
+        } else {
+            int code = strings.find(id);
+            if (code == StringDictionary.NONE) {
+                return NO_ROW;
+            }
+            hi = 0;
+            lo = code;
+        }
+        boolean textId = uuid == null;
+
+        int mask = idTable.length - 1;
+        for (int i = hash(hi, lo) & mask; idTable[i] != 0; i = (i + 1) & mask) {
+            int row = idTable[i] - 1;
+            if (idHi[row] == hi && idLo[row] == lo && ((flags[row] & FLAG_TEXT_ID) != 0) == textId) {
+                return row;
+            }
+        }
+        return NO_ROW;
+    }
+
+    private void moveRow(int from, int to) {
+        if (from == to) {
+            return;
+        }
+        idHi[to] = idHi[from];
+        idLo[to] = idLo[from];
+        user[to] = user[from];
+        workplace[to] = workplace[from];
+        workplaceName[to] = workplaceName[from];
+        branch[to] = branch[from];
+        purpose[to] = purpose[from];
+        day[to] = day[from];
+        start[to] = start[from];
+        end[to] = end[from];
+        flags[to] = flags[from];
+        cancelledAt[to] = cancelledAt[from];
+        checkedInAt[to] = checkedInAt[from];
+    }
+
+    private LocalDate horizon() {
+        return LocalDate.now().minusDays(horizonDays);
+    }
+
+    private boolean isBeforeHorizon(Booking booking) {
+        try {
+            return LocalDate.parse(booking.getDate(), BookingService.DATE_FORMAT).isBefore(horizon());
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void insertId(int row) {
+        int mask = idTable.length - 1;
+        int i = hash(idHi[row], idLo[row]) & mask;
+        while (idTable[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        idTable[i] = row + 1;
+    }
+
+    private void rehash(int capacity) {
+        idTable = new int[capacity];
+        for (int row = 0; row < rows; row++) {
+            insertId(row);
+        }
+    }
+
+    private void allocate(int capacity) {
+        idHi = new long[capacity];
+        idLo = new long[capacity];
+        user = new int[capacity];
+        workplace = new int[capacity];
+        workplaceName = new int[capacity];
+        branch = new int[capacity];
+        purpose = new int[capacity];
+        day = new int[capacity];
+        start = new short[capacity];
+        end = new short[capacity];
+        flags = new byte[capacity];
+        cancelledAt = new long[capacity];
+        checkedInAt = new long[capacity];
+        nextInSlot = new int[capacity];
+        nextInPlace = new int[capacity];
+        idTable = new int[Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1];
+        clearHeads(idTable.length);
+    }
+
+    private void grow(int capacity) {
+        idHi = Arrays.copyOf(idHi, capacity);
+        idLo = Arrays.copyOf(idLo, capacity);
+        user = Arrays.copyOf(user, capacity);
+        workplace = Arrays.copyOf(workplace, capacity);
+        workplaceName = Arrays.copyOf(workplaceName, capacity);
+        branch = Arrays.copyOf(branch, capacity);
+        purpose = Arrays.copyOf(purpose, capacity);
+        day = Arrays.copyOf(day, capacity);
+        start = Arrays.copyOf(start, capacity);
+        end = Arrays.copyOf(end, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        cancelledAt = Arrays.copyOf(cancelledAt, capacity);
+        checkedInAt = Arrays.copyOf(checkedInAt, capacity);
+        nextInSlot = Arrays.copyOf(nextInSlot, capacity);
+        nextInPlace = Arrays.copyOf(nextInPlace, capacity);
+    }
+
+    private static long slotKey(int place, int epochDay) {
+        return ((long) place << 32) | (epochDay & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long hi, long lo) {
+        long h = (hi ^ lo) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static UUID parseUuid(String id) {
+        if (id.length() != 36) {
+            return null;
+        }
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String formatMinute(int minute) {
+        return String.format("%02d:%02d", minute / 60, minute % 60);
+    }
+
+    private static long toMicros(String instant) {
+        if (instant == null) {
+            return 0;
+        }
+        try {
+            return ChronoUnit.MICROS.between(Instant.EPOCH, Instant.parse(instant));
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static String fromMicros(long micros) {
+        return micros == 0 ? null : Instant.EPOCH.plus(micros, ChronoUnit.MICROS).toString();
+    }
+}
@@ -0,0 +1,45 @@
+package com.booking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * BookingReaper - фоновая очистка отменённых бронирований
+ * Запускается по расписанию вне пути обработки запросов и пачкой удаляет
+ * (или переносит в архив) tombstone-записи старше окна хранения
+ */
+@Component
+public class BookingReaper {
+
+    @Autowired
+    private BookingService bookingService;
+
+    // Сколько часов хранить отменённые записи до физической очистки
+    @Value("${booking.cancel.retention-hours:168}")
+    private long retentionHours;
+
+    // purge - удалять файлы, archive - переносить в отдельную папку
+    @Value("${booking.reaper.mode:purge}")
+    private String mode;
+
+    /**
+     * Периодический проход по бронированиям
+     */
+    @Scheduled(fixedDelayString = "${booking.reaper.interval-ms:3600000}",
+               initialDelayString = "${booking.reaper.initial-delay-ms:60000}")
+    public void reap() {
+        try {
+            Instant cutoff = Instant.now().minus(Duration.ofHours(retentionHours));
+            boolean archive = "archive".equalsIgnoreCase(mode);
+            int purged = bookingService.purgeCancelled(cutoff, archive);
+            System.out.println("Очистка отменённых бронирований: " + purged
+                + (archive ? " перенесено в архив" : " удалено"));
+        } catch (Exception e) {
+            System.err.println("Ошибка очистки отменённых бронирований: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.booking.service;
+
+import com.booking.model.Booking;
+
+/**
+ * BookingReminderEvent - напоминание о скором начале бронирования
+ * Публикуется BookingScheduler за booking.reminder.minutes-before минут до начала;
+ * каналы доставки (почта, мессенджеры) подписываются на событие
+ */
+public class BookingReminderEvent {
+
+    private final Booking booking;
+
+    public BookingReminderEvent(Booking booking) {
+        this.booking = booking;
+    }
+
+    public Booking getBooking() { return booking; }
+}
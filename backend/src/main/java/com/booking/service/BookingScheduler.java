@@ -0,0 +1,231 @@
+package com.booking.service;
+
+import com.booking.model.Booking;
+import com.booking.util.HashedTimingWheel;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookingScheduler - напоминания и автоматическое освобождение неиспользованных мест
+ * Бронирования текущего дня читаются один раз (при старте и в полночь) и раскладываются
+ * по хешированному колесу таймеров: напоминание перед началом и проверка прихода после
+ * окончания льготного периода. Если сотрудник не отметился, бронирование отменяется
+ * (под блокировкой слота, как и отметка о приходе, поэтому они не перетирают друг друга).
+ * Освобождение планируется только на будущий момент: бронирования, начавшиеся
+ * до загрузки или созданные на уже идущий слот, не отменяются. Новые, отменённые
+ * и отмеченные бронирования учитываются по BookingChangedEvent, без повторного
+ * обхода BOOKINGS_DIR
+ */
+@Service
+public class BookingScheduler {
+
+    /**
+     * Задачи, запланированные для одного бронирования
+     */
+    private static final class Entry {
+        private final Booking booking;
+        private HashedTimingWheel.Timeout reminder;
+        private HashedTimingWheel.Timeout noShow;
+
+        private Entry(Booking booking) {
+            this.booking = booking;
+        }
+
+        private void cancel() {
+            if (reminder != null) reminder.cancel();
+            if (noShow != null) noShow.cancel();
+        }
+    }
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // За сколько минут до начала отправлять напоминание
+    @Value("${booking.reminder.minutes-before:15}")
+    private long reminderMinutes;
+
+    // Через сколько минут после начала освобождать место без отметки о приходе
+    @Value("${booking.noshow.grace-minutes:15}")
+    private long graceMinutes;
+
+    // Выключено, пока в интерфейсе нет отметки о приходе
+    @Value("${booking.noshow.enabled:false}")
+    private boolean noShowEnabled;
+
+    private HashedTimingWheel wheel;
+    private ExecutorService executor;
+    private volatile LocalDate loadedDay;
+
+    // Бронирования загруженного дня: id -> запланированные задачи
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        // Отмена пишет в HDFS, поэтому задачи выполняются вне потока колеса
+        executor = Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "booking-scheduler-task");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Тик 1 с, 4096 ячеек - один оборот около 68 минут
+        wheel = new HashedTimingWheel("booking-scheduler", 1000, 4096, executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+        executor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        loadDay(LocalDate.now());
+    }
+
+    /**
+     * Перезагрузка расписания на новый день
+     */
+    @Scheduled(cron = "${booking.scheduler.reload-cron:0 0 0 * * *}")
+    public void onNewDay() {
+        loadDay(LocalDate.now());
+    }
+
+    /**
+     * Читает бронирования дня и планирует для них напоминания и проверку прихода
+     */
+    public synchronized void loadDay(LocalDate day) {
+        entries.values().forEach(Entry::cancel);
+        entries.clear();
+        loadedDay = day;
+
+        try {
+            int scheduled = 0;
+            for (Booking booking : bookingService.readDay(day)) {
+                if (schedule(booking)) {
+                    scheduled++;
+                }
+            }
+            System.out.println("Расписание на " + day + ": запланировано бронирований " + scheduled);
+        } catch (Exception e) {
+            System.err.println("Ошибка загрузки расписания на " + day + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Бронирование текущего дня по ID (для отметки о приходе). Если расписание
+     * его не отслеживает (создано на другом экземпляре), оно ищется в хранилище
+     * @return бронирование или null, если оно не на сегодня, отменено или уже закончилось
+     */
+    public Booking findToday(String bookingId) throws IOException {
+        Entry entry = entries.get(bookingId);
+        if (entry != null) {
+            return entry.booking;
+        }
+
+        LocalDate today = LocalDate.now();
+        Booking booking = bookingService.findOnDay(bookingId, today);
+        if (booking == null || booking.isCancelled()) {
+            return null;
+        }
+        LocalDateTime end = LocalDateTime.of(today, LocalTime.parse(booking.getEndTime()));
+        return end.isAfter(LocalDateTime.now()) ? booking : null;
+    }
+
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        Booking booking = event.getBooking();
+        if (event.getType() == BookingChangedEvent.Type.CREATED) {
+            if (loadedDay != null && loadedDay.format(BookingService.DATE_FORMAT).equals(booking.getDate())) {
+                schedule(booking);
+            }
+        } else {
+            Entry entry = entries.remove(booking.getId());
+            if (entry != null) {
+                entry.cancel();
+            }
+        }
+    }
+
+    private boolean schedule(Booking booking) {
+        if (booking.isCancelled() || booking.getCheckedInAt() != null) {
+            return false;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate date = LocalDate.parse(booking.getDate(), BookingService.DATE_FORMAT);
+        LocalDateTime start = LocalDateTime.of(date, LocalTime.parse(booking.getStartTime()));
+        LocalDateTime end = LocalDateTime.of(date, LocalTime.parse(booking.getEndTime()));
+        if (!end.isAfter(now)) {
+            return false;
+        }
+
+        Entry entry = new Entry(booking);
+        Entry previous = entries.put(booking.getId(), entry);
+        if (previous != null) {
+            previous.cancel();
+        }
+
+        LocalDateTime reminderAt = start.minusMinutes(reminderMinutes);
+        if (reminderAt.isAfter(now)) {
+            entry.reminder = wheel.schedule(() -> remind(booking), millisUntil(now, reminderAt), TimeUnit.MILLISECONDS);
+        }
+        LocalDateTime noShowAt = start.plusMinutes(graceMinutes);
+        if (noShowEnabled && noShowAt.isAfter(now)) {
+            entry.noShow = wheel.schedule(() -> releaseNoShow(booking), millisUntil(now, noShowAt), TimeUnit.MILLISECONDS);
+        }
+        return true;
+    }
+
+    private void remind(Booking booking) {
+        if (!entries.containsKey(booking.getId())) {
+            return;
+        }
+        System.out.println("Напоминание: " + booking.getUserId() + ", " + booking.getWorkplaceName()
+            + " в " + booking.getStartTime());
+        eventPublisher.publishEvent(new BookingReminderEvent(booking));
+    }
+
+    private void releaseNoShow(Booking booking) {
+        LocalDate date = LocalDate.parse(booking.getDate(), BookingService.DATE_FORMAT);
+        try {
+            synchronized (holdService.lockFor(booking.getWorkplaceId(), date)) {
+                // Отметка о приходе удаляет запись из entries, тогда место не освобождается
+                if (entries.remove(booking.getId()) == null) {
+                    return;
+                }
+                if (bookingService.cancelIfNotCheckedIn(booking) != null) {
+                    System.out.println("Нет отметки о приходе, место освобождено: " + booking.getId());
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Ошибка автоматической отмены " + booking.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private static long millisUntil(LocalDateTime now, LocalDateTime at) {
+        return Math.max(0, Duration.between(now, at).toMillis());
+    }
+}
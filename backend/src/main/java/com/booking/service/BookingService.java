@@ -0,0 +1,437 @@
+package com.booking.service;
+
+import com.booking.model.Booking;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * BookingService - общая логика хранения бронирований в HDFS
+ * Отмена не удаляет файл, а перезаписывает его со статусом cancelled (tombstone);
+ * физическую очистку выполняет BookingReaper в фоне.
+ * После создания и отмены публикуется BookingChangedEvent.
+ * Если включён локальный журнал (BookingSpool), записи идут через него,
+ * а чтения учитывают ещё не перенесённые в HDFS версии файлов
+ */
+@Service
+public class BookingService {
+
+    public static final String BOOKINGS_DIR = "/user/booking/bookings/";
+    public static final String CANCELLED_ARCHIVE_DIR = "/user/booking/cancelled/";
+    public static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    @Autowired
+    private HdfsStorageService hdfsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private BookingIndex bookingIndex;
+
+    @Autowired
+    private BookingSpool spool;
+
+    /**
+     * Путь к папке-партиции дня (BOOKINGS_DIR/yyyy/MM/dd)
+     */
+    public static String dayDir(LocalDate date) {
+        return BOOKINGS_DIR + String.format("%d/%02d/%02d",
+            date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+    }
+
+    /**
+     * Путь к файлу бронирования в партиции его дня
+     */
+    public static String bookingPath(Booking booking) {
+        LocalDate date = LocalDate.parse(booking.getDate(), DATE_FORMAT);
+        return dayDir(date) + "/booking_" + booking.getId() + ".json";
+    }
+
+    /**
+     * Переводит время ЧЧ:ММ в минуты от полуночи
+     */
+    public static int minuteOfDay(String time) {
+        return Integer.parseInt(time.substring(0, 2)) * 60 + Integer.parseInt(time.substring(3, 5));
+    }
+
+    /**
+     * Создаёт бронирование: присваивает ID и статус, сохраняет файл в партицию дня
+     * @param booking данные бронирования
+     * @return сохранённое бронирование
+     */
+    public Booking createBooking(Booking booking) throws IOException {
+        booking.setId(UUID.randomUUID().toString());
+        booking.setStatus("confirmed");
+
+        write(bookingPath(booking), booking);
+        eventPublisher.publishEvent(new BookingChangedEvent(booking, BookingChangedEvent.Type.CREATED));
+        return booking;
+    }
+
+    /**
+     * Читает все бронирования одного дня из его партиции
+     * @param date дата
+     * @return список бронирований (включая отменённые)
+     */
+    public List<Booking> readDay(LocalDate date) throws IOException {
+        List<Booking> bookings = new ArrayList<>();
+        for (String filePath : hdfsService.listFiles(dayDir(date))) {
+            if (filePath.endsWith(".json")) {
+                try {
+                    Booking booking = hdfsService.readJson(filePath, Booking.class);
+                    if (booking != null) {
+                        bookings.add(booking);
+                    }
+                } catch (Exception e) {
+                    System.err.println("Ошибка чтения файла: " + filePath);
+                }
+            }
+        }
+
+        // Версии из журнала новее файлов в HDFS
+        if (spool.isEnabled()) {
+            for (Booking spooled : spool.findInDirectory(dayDir(date))) {
+                bookings.removeIf(b -> spooled.getId().equals(b.getId()));
+                bookings.add(spooled);
+            }
+        }
+        return bookings;
+    }
+
+    /**
+     * Дни, начиная с from, для которых есть партиция в BOOKINGS_DIR
+     * или неперенесённые записи журнала
+     * @param from первый день
+     * @return даты по возрастанию
+     */
+    public SortedSet<LocalDate> daysFrom(LocalDate from) throws IOException {
+        SortedSet<LocalDate> days = new TreeSet<>();
+        YearMonth firstMonth = YearMonth.from(from);
+        for (String year : hdfsService.listDirectories(BOOKINGS_DIR)) {
+            if (Integer.parseInt(year) < from.getYear()) {
+                continue;
+            }
+            for (String month : hdfsService.listDirectories(BOOKINGS_DIR + year)) {
+                if (YearMonth.of(Integer.parseInt(year), Integer.parseInt(month)).isBefore(firstMonth)) {
+                    continue;
+                }
+                for (String day : hdfsService.listDirectories(BOOKINGS_DIR + year + "/" + month)) {
+                    LocalDate date = LocalDate.of(Integer.parseInt(year), Integer.parseInt(month), Integer.parseInt(day));
+                    if (!date.isBefore(from)) {
+                        days.add(date);
+                    }
+                }
+            }
+        }
+
+        if (spool.isEnabled()) {
+            for (Booking spooled : spool.findInDirectory(BOOKINGS_DIR)) {
+                LocalDate date = LocalDate.parse(spooled.getDate(), DATE_FORMAT);
+                if (!date.isBefore(from)) {
+                    days.add(date);
+                }
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Проверяет, свободно ли место в указанный интервал.
+     * Если индекс загружен, проверка идёт по нему без чтения HDFS, иначе - по партиции дня
+     * @param workplaceId ID рабочего места
+     * @param date дата
+     * @param startTime время начала (ЧЧ:ММ)
+     * @param endTime время окончания (ЧЧ:ММ)
+     * @return true если нет подтверждённых пересекающихся бронирований
+     */
+    public boolean isSlotFree(String workplaceId, LocalDate date, String startTime, String endTime) throws IOException {
+        if (bookingIndex.isReady()) {
+            return bookingIndex.isSlotFree(workplaceId, date, minuteOfDay(startTime), minuteOfDay(endTime));
+        }
+        return isSlotFreeInStorage(workplaceId, date, startTime, endTime);
+    }
+
+    /**
+     * Проверка с учётом записей других экземпляров приложения, о которых индекс
+     * мог ещё не узнать: перед записью под блокировкой слота партиция дня в HDFS
+     * дочитывается в индекс (см. refreshDay), без индекса читается целиком
+     * @return true если нет подтверждённых пересекающихся бронирований
+     */
+    public boolean isSlotFreeInStorage(String workplaceId, LocalDate date, String startTime, String endTime)
+            throws IOException {
+        if (!bookingIndex.isReady()) {
+            return !busyWorkplaces(date, startTime, endTime).contains(workplaceId);
+        }
+        refreshDay(date);
+        return bookingIndex.isSlotFree(workplaceId, date, minuteOfDay(startTime), minuteOfDay(endTime));
+    }
+
+    /**
+     * Дочитывает в индекс файлы партиции дня, изменённые после последнего обновления индекса.
+     * Всё более старое индекс уже прочитал, поэтому нужен один листинг папки дня
+     * и чтение только новых файлов, а не всех бронирований дня
+     */
+    public void refreshDay(LocalDate date) throws IOException {
+        if (!bookingIndex.isReady()) {
+            return;
+        }
+        for (String filePath : hdfsService.listFilesModifiedAfter(dayDir(date), bookingIndex.refreshedBefore())) {
+            if (!filePath.endsWith(".json")) {
+                continue;
+            }
+            try {
+                Booking booking = read(filePath.substring(filePath.indexOf(BOOKINGS_DIR)));
+                if (booking != null) {
+                    bookingIndex.put(booking);
+                }
+            } catch (Exception e) {
+                System.err.println("Ошибка чтения файла: " + filePath);
+            }
+        }
+    }
+
+    /**
+     * Места, занятые подтверждёнными бронированиями в интервал, по всей партиции дня
+     * @return ID занятых мест
+     */
+    public Set<String> busyWorkplaces(LocalDate date, String startTime, String endTime) throws IOException {
+        Set<String> busy = new HashSet<>();
+        for (Booking booking : readDay(date)) {
+            if (!booking.isCancelled() && overlaps(startTime, endTime, booking.getStartTime(), booking.getEndTime())) {
+                busy.add(booking.getWorkplaceId());
+            }
+        }
+        return busy;
+    }
+
+    /**
+     * Проверка пересечения временных интервалов
+     * @return true если интервалы пересекаются
+     */
+    public static boolean overlaps(String start1, String end1, String start2, String end2) {
+        return start1.compareTo(end2) < 0 && start2.compareTo(end1) < 0;
+    }
+
+    /**
+     * Ищет файл бронирования по ID
+     * @param id идентификатор бронирования
+     * @return путь к файлу или null, если не найден
+     */
+    public String findBookingPath(String id) throws IOException {
+        if (spool.isEnabled()) {
+            String spooled = spool.findPathById(id);
+            if (spooled != null) {
+                return spooled;
+            }
+        }
+
+        List<String> files = hdfsService.listFiles(BOOKINGS_DIR);
+        System.out.println("Всего файлов в HDFS: " + files.size());
+
+        for (String filePath : files) {
+            if (filePath.contains(id) && filePath.endsWith(".json")) {
+                return filePath;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Бронирование дня по ID без обхода дерева: сначала индекс, затем файл
+     * в партиции дня (его мог создать другой экземпляр после обновления индекса)
+     * @param id идентификатор бронирования
+     * @param date день бронирования
+     * @return бронирование или null, если на этот день его нет
+     */
+    public Booking findOnDay(String id, LocalDate date) throws IOException {
+        String day = date.format(DATE_FORMAT);
+        Booking indexed = bookingIndex.isReady() ? bookingIndex.get(id) : null;
+        if (indexed != null) {
+            return day.equals(indexed.getDate()) ? indexed : null;
+        }
+        if (id.isEmpty() || id.contains("/")) {
+            return null;
+        }
+        Booking stored = read(dayDir(date) + "/booking_" + id + ".json");
+        return stored != null && day.equals(stored.getDate()) ? stored : null;
+    }
+
+    /**
+     * Отменяет бронирование: записывает статус cancelled поверх исходного файла
+     * @param id идентификатор бронирования
+     * @return отменённое бронирование или null, если оно не найдено
+     */
+    public Booking cancelBooking(String id) throws IOException {
+        // Индекс знает дату бронирования: файл читается сразу из партиции дня без обхода дерева
+        Booking indexed = bookingIndex.isReady() ? bookingIndex.get(id) : null;
+        if (indexed != null) {
+            Booking cancelled = cancelAt(bookingPath(indexed));
+            if (cancelled != null) {
+                return cancelled;
+            }
+        }
+        return cancelAt(findBookingPath(id));
+    }
+
+    /**
+     * Отмена бронирования с известной датой: файл ищется сразу в партиции дня,
+     * без обхода всего BOOKINGS_DIR
+     */
+    public Booking cancelBooking(Booking booking) throws IOException {
+        return cancelAt(bookingPath(booking));
+    }
+
+    private Booking cancelAt(String path) throws IOException {
+        if (path == null) {
+            return null;
+        }
+
+        Booking booking = read(path);
+        if (booking == null) {
+            return null;
+        }
+
+        if (!booking.isCancelled()) {
+            booking.setStatus("cancelled");
+            booking.setCancelledAt(Instant.now().toString());
+            write(path, booking);
+            System.out.println("Бронирование помечено как отменённое: " + path);
+            eventPublisher.publishEvent(new BookingChangedEvent(booking, BookingChangedEvent.Type.CANCELLED));
+        }
+        return booking;
+    }
+
+    /**
+     * Освобождение неиспользованного места: файл перечитывается, и бронирование
+     * с отметкой о приходе (в том числе сделанной на другом экземпляре) не отменяется.
+     * Вызывается под блокировкой слота (HoldService.lockFor), как и checkIn
+     * @return отменённое бронирование или null
+     */
+    public Booking cancelIfNotCheckedIn(Booking booking) throws IOException {
+        String path = bookingPath(booking);
+        Booking stored = read(path);
+        if (stored == null || stored.isCancelled() || stored.getCheckedInAt() != null) {
+            return null;
+        }
+        return cancelAt(path);
+    }
+
+    /**
+     * Отметка о приходе: сохраняет checkedInAt в файл бронирования
+     * (вызывается под блокировкой слота, см. cancelIfNotCheckedIn)
+     * @param booking бронирование (нужны id и дата)
+     * @return обновлённое бронирование или null, если оно не найдено или отменено
+     */
+    public Booking checkIn(Booking booking) throws IOException {
+        String path = bookingPath(booking);
+        Booking stored = read(path);
+        if (stored == null || stored.isCancelled()) {
+            return null;
+        }
+
+        if (stored.getCheckedInAt() == null) {
+            stored.setCheckedInAt(Instant.now().toString());
+            write(path, stored);
+            eventPublisher.publishEvent(new BookingChangedEvent(stored, BookingChangedEvent.Type.CHECKED_IN));
+        }
+        return stored;
+    }
+
+    /**
+     * Чтение файла бронирования с учётом неперенесённой версии из журнала
+     */
+    private Booking read(String path) throws IOException {
+        if (spool.isEnabled()) {
+            Booking spooled = spool.find(path);
+            if (spooled != null) {
+                return spooled;
+            }
+        }
+        return hdfsService.readJson(path, Booking.class);
+    }
+
+    /**
+     * Запись файла бронирования: в журнал (подтверждение после fsync на локальный диск)
+     * или, если журнал выключен, сразу в HDFS
+     */
+    private void write(String path, Booking booking) throws IOException {
+        if (spool.isEnabled()) {
+            spool.append(path, booking);
+        } else {
+            hdfsService.saveJson(path, booking);
+        }
+    }
+
+    /**
+     * Физически удаляет (или переносит в архив) отменённые бронирования,
+     * отменённые раньше указанного момента
+     * @param cutoff граница хранения tombstone-записей
+     * @param archive true - перенести в CANCELLED_ARCHIVE_DIR, false - удалить
+     * @return количество обработанных файлов
+     */
+    public int purgeCancelled(Instant cutoff, boolean archive) throws IOException {
+        if (!hdfsService.exists(BOOKINGS_DIR)) {
+            return 0;
+        }
+
+        int purged = 0;
+        for (String filePath : hdfsService.listFiles(BOOKINGS_DIR)) {
+            if (!filePath.endsWith(".json")) {
+                continue;
+            }
+            try {
+                // Чтение через журнал: в нём может быть более новая версия файла
+                String path = filePath.substring(filePath.indexOf(BOOKINGS_DIR));
+                Booking booking = read(path);
+                if (booking == null || !booking.isCancelled() || !isExpired(booking, cutoff)) {
+                    continue;
+                }
+                // Неперенесённая запись журнала создала бы файл заново - очистка в следующий проход
+                if (spool.isEnabled() && spool.find(path) != null) {
+                    continue;
+                }
+
+                boolean done;
+                if (archive) {
+                    done = hdfsService.rename(path, CANCELLED_ARCHIVE_DIR + path.substring(BOOKINGS_DIR.length()));
+                } else {
+                    done = hdfsService.delete(path);
+                }
+                if (done) {
+                    purged++;
+                }
+            } catch (Exception e) {
+                System.err.println("Ошибка очистки файла: " + filePath + " - " + e.getMessage());
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * Проверяет, истёк ли срок хранения отменённой записи.
+     * Записи без cancelledAt (отменённые до появления поля) считаются просроченными
+     */
+    private boolean isExpired(Booking booking, Instant cutoff) {
+        if (booking.getCancelledAt() == null) {
+            return true;
+        }
+        try {
+            return Instant.parse(booking.getCancelledAt()).isBefore(cutoff);
+        } catch (Exception e) {
+            return true;
+        }
+    }
+}
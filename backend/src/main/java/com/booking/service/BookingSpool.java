@@ -0,0 +1,325 @@
+package com.booking.service;
+
+import com.booking.model.Booking;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * BookingSpool - локальный журнал записей бронирований
+ * Запись бронирования подтверждается, как только строка дописана в локальный файл
+ * и сброшена на диск (fsync). Фоновый перенос отправляет записи в HDFS пачками
+ * строго по порядку; при ошибке пачка прерывается и повторяется позже, поэтому
+ * медленный или недоступный кластер не задерживает создание и отмену.
+ * Пока запись не перенесена, BookingService читает её из журнала.
+ * Номер последней перенесённой записи хранится в отдельном маркере, а сам файл
+ * журнала сжимается только после booking.spool.compact-threshold перенесённых записей.
+ * Журнал должен лежать на постоянном диске: при booking.spool.enabled=true
+ * без booking.spool.dir приложение не запускается
+ */
+@Service
+public class BookingSpool {
+
+    /**
+     * Запись журнала: путь файла бронирования и его содержимое
+     */
+    public static class Entry {
+        private long seq;
+        private long createdAt;
+        private String path;
+        private Booking booking;
+
+        public long getSeq() { return seq; }
+        public void setSeq(long seq) { this.seq = seq; }
+
+        public long getCreatedAt() { return createdAt; }
+        public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+
+        public String getPath() { return path; }
+        public void setPath(String path) { this.path = path; }
+
+        public Booking getBooking() { return booking; }
+        public void setBooking(Booking booking) { this.booking = booking; }
+    }
+
+    private static final String SPOOL_FILE = "spool.ndjson";
+    private static final String DRAINED_FILE = "spool.drained";
+
+    @Autowired
+    private HdfsStorageService hdfsService;
+
+    @Value("${booking.spool.enabled:false}")
+    private boolean enabled;
+
+    // Постоянная папка журнала; по умолчанию не задана
+    @Value("${booking.spool.dir:}")
+    private String spoolDir;
+
+    // Сколько записей переносится за один проход
+    @Value("${booking.spool.batch-size:100}")
+    private int batchSize;
+
+    // Сколько перенесённых записей может оставаться в начале файла до его сжатия
+    @Value("${booking.spool.compact-threshold:1000}")
+    private int compactThreshold;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Все поля ниже защищены this
+    private File file;
+    private File drainedFile;
+    private FileChannel channel;
+    private final Deque<Entry> pending = new ArrayDeque<>();
+    private final Map<String, Booking> latestByPath = new HashMap<>();
+    private long nextSeq = 1;
+    private long drained;
+    private long drainedSeq;         // последняя перенесённая запись
+    private int drainedInFile;       // перенесённые записи, ещё лежащие в файле журнала
+    private String lastError;
+
+    @PostConstruct
+    public synchronized void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (spoolDir == null || spoolDir.isBlank()) {
+            throw new IllegalStateException("booking.spool.enabled=true требует booking.spool.dir "
+                + "(папка на постоянном диске, не во временной директории)");
+        }
+        File dir = new File(spoolDir);
+        dir.mkdirs();
+        file = new File(dir, SPOOL_FILE);
+        drainedFile = new File(dir, DRAINED_FILE);
+        if (drainedFile.exists()) {
+            drainedSeq = Long.parseLong(Files.readString(drainedFile.toPath(), StandardCharsets.UTF_8).trim());
+        }
+
+        // Неперенесённые записи предыдущего запуска; недописанная последняя строка отбрасывается
+        if (file.exists()) {
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        Entry entry = objectMapper.readValue(line, Entry.class);
+                        nextSeq = Math.max(nextSeq, entry.getSeq() + 1);
+                        if (entry.getSeq() <= drainedSeq) {
+                            continue;
+                        }
+                        pending.add(entry);
+                        latestByPath.put(entry.getPath(), entry.getBooking());
+                    } catch (IOException e) {
+                        System.err.println("Повреждённая строка журнала пропущена: " + e.getMessage());
+                    }
+                }
+            }
+            System.out.println("Журнал записей: к переносу " + pending.size() + " записей");
+        }
+        nextSeq = Math.max(nextSeq, drainedSeq + 1);
+        rewrite();
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Дописывает запись в журнал и сбрасывает её на диск
+     * @param path путь файла бронирования в HDFS
+     * @param booking содержимое файла
+     */
+    public synchronized void append(String path, Booking booking) throws IOException {
+        Entry entry = new Entry();
+        entry.setSeq(nextSeq++);
+        entry.setCreatedAt(System.currentTimeMillis());
+        entry.setPath(path);
+        // Копия: вызывающий код может дальше менять объект
+        entry.setBooking(objectMapper.convertValue(booking, Booking.class));
+
+        writeLine(channel, entry);
+        channel.force(false);
+
+        pending.add(entry);
+        latestByPath.put(path, entry.getBooking());
+    }
+
+    /**
+     * Последняя неперенесённая версия файла
+     * @return копия бронирования или null, если файла нет в журнале
+     */
+    public synchronized Booking find(String path) {
+        Booking booking = latestByPath.get(path);
+        return booking != null ? objectMapper.convertValue(booking, Booking.class) : null;
+    }
+
+    /**
+     * Путь к неперенесённому файлу бронирования по ID
+     */
+    public synchronized String findPathById(String id) {
+        String suffix = "/booking_" + id + ".json";
+        for (String path : latestByPath.keySet()) {
+            if (path.endsWith(suffix)) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Неперенесённые бронирования из папки (например, партиции дня)
+     */
+    public synchronized List<Booking> findInDirectory(String directory) {
+        String prefix = directory.endsWith("/") ? directory : directory + "/";
+        List<Booking> result = new ArrayList<>();
+        latestByPath.forEach((path, booking) -> {
+            if (path.startsWith(prefix)) {
+                result.add(objectMapper.convertValue(booking, Booking.class));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Перенос записей в HDFS по порядку. Запись, которую не удалось сохранить,
+     * остаётся первой в очереди, следующие за ней не переносятся
+     */
+    @Scheduled(fixedDelayString = "${booking.spool.drain-interval-ms:200}")
+    public void drain() {
+        if (!enabled) {
+            return;
+        }
+
+        List<Entry> batch = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Entry> iterator = pending.iterator();
+            while (iterator.hasNext() && batch.size() < batchSize) {
+                batch.add(iterator.next());
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        int done = 0;
+        String error = null;
+        for (Entry entry : batch) {
+            try {
+                hdfsService.saveJson(entry.getPath(), entry.getBooking());
+                done++;
+            } catch (Exception e) {
+                error = e.getMessage();
+                break;
+            }
+        }
+
+        synchronized (this) {
+            if (error != null && !error.equals(lastError)) {
+                System.err.println("Перенос журнала в HDFS приостановлен: " + error
+                    + " (в очереди " + pending.size() + ")");
+            }
+            lastError = error;
+            if (done == 0) {
+                return;
+            }
+
+            // Перенесённые записи всё ещё первые: из очереди удаляет только перенос
+            for (int i = 0; i < done; i++) {
+                drainedSeq = pending.poll().getSeq();
+            }
+            drained += done;
+            drainedInFile += done;
+            latestByPath.clear();
+            for (Entry entry : pending) {
+                latestByPath.put(entry.getPath(), entry.getBooking());
+            }
+
+            try {
+                // Маркер без fsync: после сбоя часть записей будет перенесена повторно, это безопасно
+                writeDrainedMarker();
+                if (drainedInFile >= compactThreshold) {
+                    rewrite();
+                }
+            } catch (IOException e) {
+                System.err.println("Ошибка сжатия журнала: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Состояние журнала для отладочного эндпоинта
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("pending", pending.size());
+        stats.put("drained", drained);
+        stats.put("drainedInFile", drainedInFile);
+        Entry oldest = pending.peek();
+        stats.put("oldestAgeMillis", oldest != null ? System.currentTimeMillis() - oldest.getCreatedAt() : 0);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+
+    /**
+     * Перезаписывает файл журнала только неперенесёнными записями
+     * (временный файл, fsync, атомарное переименование) и открывает его для дозаписи
+     */
+    private void rewrite() throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Entry entry : pending) {
+                writeLine(out, entry);
+            }
+            out.force(true);
+        }
+
+        if (channel != null) {
+            channel.close();
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        drainedInFile = 0;
+    }
+
+    /**
+     * Сохраняет номер последней перенесённой записи (временный файл и переименование)
+     */
+    private void writeDrainedMarker() throws IOException {
+        File tmp = new File(drainedFile.getPath() + ".tmp");
+        Files.writeString(tmp.toPath(), Long.toString(drainedSeq), StandardCharsets.UTF_8);
+        Files.move(tmp.toPath(), drainedFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeLine(FileChannel target, Entry entry) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(entry);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1);
+        buffer.put(json).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.booking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * CheckpointStore - хранение двоичных контрольных точек состояния в памяти
+ * Контрольная точка пишется локально (fsync и атомарное переименование), затем
+ * копируется в CHECKPOINTS_DIR через временный файл. Последним перезаписывается
+ * маркер LATEST.json с номером: пока он не обновлён, действует предыдущая точка.
+ * При старте локальная копия (или скачанная из HDFS) отображается в память
+ */
+@Service
+public class CheckpointStore {
+
+    public static final String CHECKPOINTS_DIR = "/user/booking/checkpoints/";
+    private static final String MARKER_PATH = CHECKPOINTS_DIR + "LATEST.json";
+
+    /**
+     * Загруженная контрольная точка
+     */
+    public static final class Checkpoint {
+        private final long sequence;
+        private final long watermark;
+        private final ByteBuffer data;
+
+        private Checkpoint(long sequence, long watermark, ByteBuffer data) {
+            this.sequence = sequence;
+            this.watermark = watermark;
+            this.data = data;
+        }
+
+        public long getSequence() { return sequence; }
+
+        /** Момент (мс от эпохи), до которого все изменения вошли в точку */
+        public long getWatermark() { return watermark; }
+
+        public ByteBuffer getData() { return data; }
+    }
+
+    /**
+     * Запись содержимого контрольной точки
+     */
+    public interface ContentWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @Autowired
+    private HdfsStorageService hdfsService;
+
+    // Локальная папка для копий контрольных точек
+    @Value("${booking.checkpoint.local-dir:${java.io.tmpdir}/booking-checkpoint}")
+    private String localDir;
+
+    // Сколько последних точек хранить
+    @Value("${booking.checkpoint.keep:2}")
+    private int keep;
+
+    private long lastSequence;
+
+    /**
+     * Находит последнюю контрольную точку по маркеру и отображает её в память
+     * @return контрольная точка или null, если её ещё нет
+     */
+    public synchronized Checkpoint loadLatest() throws IOException {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> marker = hdfsService.readJson(MARKER_PATH, Map.class);
+        if (marker == null) {
+            return null;
+        }
+        long sequence = ((Number) marker.get("sequence")).longValue();
+        long watermark = ((Number) marker.get("watermark")).longValue();
+        lastSequence = Math.max(lastSequence, sequence);
+
+        File local = new File(localDir, fileName(sequence));
+        if (!local.exists()) {
+            new File(localDir).mkdirs();
+            if (!hdfsService.downloadFile(CHECKPOINTS_DIR + fileName(sequence), local)) {
+                System.err.println("Маркер указывает на отсутствующую контрольную точку: " + fileName(sequence));
+                return null;
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(local.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new Checkpoint(sequence, watermark, data);
+        }
+    }
+
+    /**
+     * Записывает новую контрольную точку
+     * @param watermark момент, до которого все изменения вошли в содержимое
+     * @param writer запись содержимого
+     * @return номер записанной точки
+     */
+    public synchronized long save(long watermark, ContentWriter writer) throws IOException {
+        long sequence = lastSequence + 1;
+        File dir = new File(localDir);
+        dir.mkdirs();
+        File local = new File(dir, fileName(sequence));
+        File tmp = new File(dir, fileName(sequence) + ".tmp");
+
+        try (FileOutputStream file = new FileOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024))) {
+            writer.write(out);
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(tmp.toPath(), local.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        hdfsService.uploadFile(local, CHECKPOINTS_DIR + fileName(sequence));
+        hdfsService.saveJson(MARKER_PATH, Map.of(
+            "sequence", sequence,
+            "file", fileName(sequence),
+            "watermark", watermark
+        ));
+        lastSequence = sequence;
+
+        removeOlderThan(sequence - keep + 1);
+        return sequence;
+    }
+
+    private void removeOlderThan(long firstKept) {
+        try {
+            File[] localFiles = new File(localDir).listFiles();
+            if (localFiles != null) {
+                for (File file : localFiles) {
+                    if (sequenceOf(file.getName()) < firstKept) {
+                        file.delete();
+                    }
+                }
+            }
+            for (String path : hdfsService.listFiles(CHECKPOINTS_DIR)) {
+                String name = path.substring(path.lastIndexOf('/') + 1);
+                if (sequenceOf(name) < firstKept) {
+                    hdfsService.delete(CHECKPOINTS_DIR + name);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Ошибка удаления старых контрольных точек: " + e.getMessage());
+        }
+    }
+
+    private static String fileName(long sequence) {
+        return String.format("index-%019d.bin", sequence);
+    }
+
+    /**
+     * Номер точки по имени файла; для посторонних файлов - Long.MAX_VALUE (не удаляются)
+     */
+    private static long sequenceOf(String name) {
+        if (!name.startsWith("index-") || !name.endsWith(".bin")) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(name.substring(6, name.length() - 4));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
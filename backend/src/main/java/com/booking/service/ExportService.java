@@ -0,0 +1,203 @@
+package com.booking.service;
+
+import com.booking.model.Booking;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * ExportService - потоковая выгрузка бронирований за период (NDJSON или CSV)
+ * Записи пишутся в выходной поток по мере чтения: месяц за месяцем сначала архив
+ * месяца, затем дневные партиции. Партиции читаются заранее параллельно, но не больше
+ * booking.export.read-ahead дней вперёд, поэтому память не зависит от размера выгрузки
+ */
+@Service
+public class ExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String[] CSV_COLUMNS = {
+        "id", "userId", "workplaceId", "workplaceName", "branch", "date",
+        "startTime", "endTime", "purpose", "status", "cancelledAt", "checkedInAt"
+    };
+
+    @Autowired
+    private HdfsStorageService hdfsService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    // Сколько дневных партиций читается заранее для одной выгрузки
+    @Value("${booking.export.read-ahead:4}")
+    private int readAhead;
+
+    // Общий пул чтения партиций для всех выгрузок
+    @Value("${booking.export.io-threads:8}")
+    private int ioThreads;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ExecutorService readers;
+
+    @PostConstruct
+    public void init() {
+        readers = Executors.newFixedThreadPool(ioThreads, r -> {
+            Thread thread = new Thread(r, "export-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        readers.shutdownNow();
+    }
+
+    /**
+     * Пишет бронирования за период в поток
+     * @param from начальная дата (включительно)
+     * @param to конечная дата (включительно)
+     * @param format формат записей
+     * @param out выходной поток ответа
+     * @return количество выгруженных записей
+     */
+    public long export(LocalDate from, LocalDate to, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == Format.CSV) {
+            writer.write(String.join(",", CSV_COLUMNS));
+            writer.write('\n');
+        }
+
+        long[] count = {0};
+        try {
+            for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+                // Архив месяца (дни старше горизонта горячего окна)
+                hdfsService.forEachJsonLineGzip(ArchiveService.monthArchivePath(month), Booking.class, booking -> {
+                    LocalDate date = LocalDate.parse(booking.getDate(), BookingService.DATE_FORMAT);
+                    if (!date.isBefore(from) && !date.isAfter(to)) {
+                        write(writer, booking, format);
+                        count[0]++;
+                    }
+                });
+
+                // Дневные партиции месяца, которые ещё не перенесены в архив
+                count[0] += exportDays(partitionDays(month, from, to), writer, format);
+                writer.flush();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        return count[0];
+    }
+
+    public static Format parseFormat(String value) {
+        return Format.valueOf(value.trim().toUpperCase());
+    }
+
+    private List<LocalDate> partitionDays(YearMonth month, LocalDate from, LocalDate to) throws IOException {
+        List<LocalDate> days = new ArrayList<>();
+        String monthDir = BookingService.BOOKINGS_DIR + String.format("%d/%02d", month.getYear(), month.getMonthValue());
+        for (String day : hdfsService.listDirectories(monthDir)) {
+            try {
+                LocalDate date = month.atDay(Integer.parseInt(day));
+                if (!date.isBefore(from) && !date.isAfter(to)) {
+                    days.add(date);
+                }
+            } catch (Exception e) {
+                // посторонняя папка
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Пишет дни по порядку, держа в работе не больше readAhead чтений
+     */
+    private long exportDays(List<LocalDate> days, Writer writer, Format format) throws IOException {
+        Deque<Future<List<Booking>>> window = new ArrayDeque<>();
+        int next = 0;
+        long written = 0;
+        try {
+            while (next < days.size() && window.size() < readAhead) {
+                window.add(submitRead(days.get(next++)));
+            }
+            while (!window.isEmpty()) {
+                List<Booking> bookings = await(window.poll());
+                if (next < days.size()) {
+                    window.add(submitRead(days.get(next++)));
+                }
+                for (Booking booking : bookings) {
+                    write(writer, booking, format);
+                    written++;
+                }
+            }
+            return written;
+        } finally {
+            // Клиент отключился или чтение упало: оставшиеся чтения не нужны
+            for (Future<List<Booking>> pending : window) {
+                pending.cancel(true);
+            }
+        }
+    }
+
+    private Future<List<Booking>> submitRead(LocalDate date) {
+        return readers.submit(() -> bookingService.readDay(date));
+    }
+
+    private static List<Booking> await(Future<List<Booking>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Выгрузка прервана");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    private void write(Writer writer, Booking booking, Format format) {
+        try {
+            if (format == Format.NDJSON) {
+                writer.write(objectMapper.writeValueAsString(booking));
+            } else {
+                String[] values = {
+                    booking.getId(), booking.getUserId(), booking.getWorkplaceId(), booking.getWorkplaceName(),
+                    booking.getBranch(), booking.getDate(), booking.getStartTime(), booking.getEndTime(),
+                    booking.getPurpose(), booking.getStatus(), booking.getCancelledAt(), booking.getCheckedInAt()
+                };
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(csvField(values[i]));
+                }
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
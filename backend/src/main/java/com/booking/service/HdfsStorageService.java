@@ -1,37 +1,165 @@
 package com.booking.service;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.apache.hadoop.hdfs.DFSHedgedReadMetrics;
+import org.apache.hadoop.hdfs.DistributedFileSystem;
+import com.booking.util.AccountingFileSystem;
+import com.booking.util.CircuitBreaker;
+import com.booking.util.IoContext;
+import com.booking.util.IoStats;
+import com.booking.util.LatencyInjectingFileSystem;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.core.json.JsonReadFeature;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * HdfsStorageService - сервис для работы с HDFS (Hadoop Distributed File System)
  * Обеспечивает чтение, запись, удаление и поиск файлов в HDFS
  * Все данные хранятся в формате JSON с кодировкой UTF-8
+ * Чтение, запись и листинг выполняются с таймаутом, ограниченным числом повторов
+ * (экспоненциальная задержка со случайным разбросом) и автоматом защиты,
+ * который при недоступном кластере сразу возвращает ошибку
  */
 @Service
 public class HdfsStorageService {
 
-    private FileSystem fs;
+    // null, пока подключение не установлено (см. hdfs.lazy-connect)
+    private volatile FileSystem fs;
+    // Для атомарной замены файлов (rename с перезаписью), создаётся при подключении
+    private volatile FileContext fileContext;
+    private final CompletableFuture<FileSystem> connection = new CompletableFuture<>();
     private final ObjectMapper objectMapper = new ObjectMapper()
         .registerModule(new JavaTimeModule())
         .configure(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
         .enable(JsonReadFeature.ALLOW_UNESCAPED_CONTROL_CHARS.mappedFeature());
     
     // Адрес HDFS и пользователь (настраивается под конкретное окружение)
-    private String hdfsUri = "hdfs://192.168.0.109:9000";
-    private String hdfsUser = "ilgol";
+    @Value("${hdfs.uri:hdfs://192.168.0.109:9000}")
+    private String hdfsUri;
+    
+    @Value("${hdfs.user:ilgol}")
+    private String hdfsUser;
+    
+    @Value("${hadoop.home.dir:C:\\hadoop}")
+    private String hadoopHomeDir;
+    
+    // Корневая папка для локального режима (hdfs.uri=file:///), пусто для HDFS
+    @Value("${hdfs.root:}")
+    private String hdfsRoot;
+    
+    // Имитация задержек кластера (для нагрузочного тестирования на локальной ФС)
+    @Value("${hdfs.latency.enabled:false}")
+    private boolean latencyEnabled;
+    
+    @Value("${hdfs.latency.namenode-ms:0}")
+    private long nameNodeLatencyMs;
+    
+    @Value("${hdfs.latency.datanode-ms:0}")
+    private long dataNodeLatencyMs;
+    
+    @Value("${hdfs.latency.tail-probability:0}")
+    private double tailProbability;
+    
+    @Value("${hdfs.latency.tail-ms:0}")
+    private long tailLatencyMs;
+    
+    // Дедлайны операций, мс
+    @Value("${hdfs.timeout.read-ms:5000}")
+    private long readTimeoutMs;
+    
+    @Value("${hdfs.timeout.write-ms:10000}")
+    private long writeTimeoutMs;
+    
+    @Value("${hdfs.timeout.list-ms:10000}")
+    private long listTimeoutMs;
+    
+    // Рекурсивный обход дерева (полное сканирование) на большом кластере идёт дольше листинга
+    @Value("${hdfs.timeout.scan-ms:120000}")
+    private long scanTimeoutMs;
+    
+    // Повторы: общее число попыток и границы задержки между ними
+    @Value("${hdfs.retry.max-attempts:3}")
+    private int maxAttempts;
+    
+    @Value("${hdfs.retry.base-delay-ms:50}")
+    private long retryBaseDelayMs;
+    
+    @Value("${hdfs.retry.max-delay-ms:1000}")
+    private long retryMaxDelayMs;
+    
+    // Автомат защиты: число ошибок подряд и время отказа в обслуживании
+    @Value("${hdfs.breaker.failure-threshold:5}")
+    private int breakerFailureThreshold;
+    
+    @Value("${hdfs.breaker.open-ms:10000}")
+    private long breakerOpenMs;
+    
+    // Hedged reads клиента HDFS: 0 потоков - выключено
+    @Value("${hdfs.hedged-read.threadpool-size:0}")
+    private int hedgedReadThreads;
+    
+    @Value("${hdfs.hedged-read.threshold-ms:500}")
+    private long hedgedReadThresholdMs;
+    
+    @Value("${hdfs.write.replace-datanode-policy:DEFAULT}")
+    private String replaceDatanodePolicy;
+    
+    @Value("${hdfs.io-threads:64}")
+    private int ioThreads;
+    
+    // Подключение в фоне: бин создаётся сразу, первые операции ждут подключения
+    @Value("${hdfs.lazy-connect:false}")
+    private boolean lazyConnect;
+    
+    // Пробная запись при подключении
+    @Value("${hdfs.connect-probe:true}")
+    private boolean connectProbe;
+    
+    // Сколько операция ждёт фонового подключения, мс
+    @Value("${hdfs.timeout.connect-ms:30000}")
+    private long connectTimeoutMs;
+    
+    // Неудачное подключение повторяется в фоне с растущей задержкой
+    @Value("${hdfs.connect.retry-base-delay-ms:1000}")
+    private long connectRetryBaseDelayMs;
+    
+    @Value("${hdfs.connect.retry-max-delay-ms:30000}")
+    private long connectRetryMaxDelayMs;
+    
+    private volatile String lastConnectError;
+    private volatile Thread connector;
+    
+    private final StorageMetrics metrics = new StorageMetrics();
+    private CircuitBreaker breaker;
+    private ExecutorService ioExecutor;
+    
+    /**
+     * Операция с хранилищем, которую можно выполнить с таймаутом и повторить
+     */
+    @FunctionalInterface
+    private interface StorageCall<T> {
+        T call() throws IOException;
+    }
     
     /**
      * Инициализация подключения к HDFS
@@ -39,39 +167,283 @@ public class HdfsStorageService {
      */
     @PostConstruct
     public void init() {
+        breaker = new CircuitBreaker(breakerFailureThreshold, breakerOpenMs);
+        ioExecutor = new ThreadPoolExecutor(0, ioThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread thread = new Thread(r, "hdfs-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        // Синхронная попытка при обычном запуске; при неудаче и в фоновом режиме - повторы в фоне
+        if (lazyConnect || !connect()) {
+            connector = new Thread(this::connectWithRetry, "hdfs-connect");
+            connector.setDaemon(true);
+            connector.start();
+        }
+    }
+    
+    /**
+     * Подключается, повторяя попытки с экспоненциальной задержкой (до hdfs.connect.retry-max-delay-ms),
+     * пока подключение не установлено или сервис не остановлен
+     */
+    private void connectWithRetry() {
+        // При обычном запуске первая попытка уже была сделана синхронно
+        if (lazyConnect && connect()) {
+            return;
+        }
+        long delay = connectRetryBaseDelayMs;
+        while (sleepBeforeRetry(delay)) {
+            if (connect()) {
+                return;
+            }
+            delay = Math.min(delay * 2, connectRetryMaxDelayMs);
+        }
+    }
+    
+    private boolean sleepBeforeRetry(long delay) {
+        System.out.println("Повтор подключения к HDFS через " + delay + " мс");
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    /**
+     * Создание файловой системы и (если включено) пробная запись
+     * @return true если подключение установлено
+     */
+    private boolean connect() {
+        long started = System.currentTimeMillis();
         try {
             System.out.println("Подключение к HDFS: " + hdfsUri);
             System.out.println("Пользователь HDFS: " + hdfsUser);
             
             // Обязательно для Windows - указываем путь к установленному Hadoop
-            System.setProperty("hadoop.home.dir", "C:\\hadoop");
+            System.setProperty("hadoop.home.dir", hadoopHomeDir);
             
             Configuration conf = new Configuration();
             conf.set("fs.defaultFS", hdfsUri);
             conf.set("fs.hdfs.impl", "org.apache.hadoop.hdfs.DistributedFileSystem");
             conf.set("dfs.client.use.datanode.hostname", "true");
-            conf.set("dfs.client.block.write.replace-datanode-on-failure.policy", "NEVER");
+            conf.set("dfs.client.block.write.replace-datanode-on-failure.policy", replaceDatanodePolicy);
+            
+            // Hedged reads: если DataNode не ответил за порог, чтение дублируется на другую реплику
+            if (hedgedReadThreads > 0) {
+                conf.setInt("dfs.client.hedged.read.threadpool.size", hedgedReadThreads);
+                conf.setLong("dfs.client.hedged.read.threshold.millis", hedgedReadThresholdMs);
+            }
             
             // Явное указание пользователя для доступа к HDFS
             System.setProperty("HADOOP_USER_NAME", hdfsUser);
             
             // Создание файловой системы с правильным URI
-            this.fs = FileSystem.get(new java.net.URI(hdfsUri), conf, hdfsUser);
+            FileSystem fileSystem = FileSystem.get(new java.net.URI(hdfsUri), conf, hdfsUser);
+            
+            // Локальный режим: .crc-файлы конфликтуют с одновременной перезаписью JSON
+            if ("file".equals(fileSystem.getScheme())) {
+                fileSystem.setWriteChecksum(false);
+                fileSystem.setVerifyChecksum(false);
+            }
+            
+            if (latencyEnabled) {
+                System.out.println("Имитация задержек HDFS: NameNode " + nameNodeLatencyMs
+                    + " мс, DataNode " + dataNodeLatencyMs + " мс");
+                fileSystem = new LatencyInjectingFileSystem(fileSystem, nameNodeLatencyMs, dataNodeLatencyMs,
+                    tailProbability, tailLatencyMs);
+            }
+            
+            // Учёт обращений к кластеру по запросам (см. IoAccountingFilter)
+            fileSystem = new AccountingFileSystem(fileSystem);
             
             // Тестовая запись для проверки работоспособности
-            Path testPath = new Path("/user/booking/test_connection");
-            fs.mkdirs(testPath);
-            fs.delete(testPath, true);
+            if (connectProbe) {
+                Path testPath = resolve("/user/booking/test_connection");
+                fileSystem.mkdirs(testPath);
+                fileSystem.delete(testPath, true);
+                System.out.println("Тестовая запись успешна");
+            }
             
-            System.out.println("HDFS подключен и работает: " + hdfsUri);
-            System.out.println("Тестовая запись успешна");
+            this.fileContext = FileContext.getFileContext(fileSystem.getUri(), conf);
+            this.fs = fileSystem;
+            lastConnectError = null;
+            connection.complete(fileSystem);
+            System.out.println("HDFS подключен и работает: " + hdfsUri + " ("
+                + (System.currentTimeMillis() - started) + " мс)");
+            return true;
             
         } catch (Exception e) {
             System.err.println("Ошибка подключения к HDFS: " + e.getMessage());
             e.printStackTrace();
+            // Ожидающие операции не завершаются ошибкой: подключение будет повторено
+            lastConnectError = e.getMessage();
+            return false;
         }
     }
     
+    /**
+     * Файловая система; пока подключение устанавливается (или повторяется после ошибки),
+     * ждёт его не дольше hdfs.timeout.connect-ms
+     */
+    private FileSystem fs() throws IOException {
+        FileSystem current = fs;
+        if (current != null) {
+            return current;
+        }
+        try {
+            return connection.get(connectTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            String lastError = lastConnectError;
+            throw new IOException("HDFS ещё не подключен (" + connectTimeoutMs + " мс)"
+                + (lastError != null ? ", последняя ошибка: " + lastError : ""));
+        } catch (ExecutionException e) {
+            throw new IOException("Нет подключения к HDFS: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Ожидание подключения к HDFS прервано");
+        }
+    }
+    
+    /**
+     * Установлено ли подключение к HDFS
+     */
+    public boolean isConnected() {
+        return fs != null;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        Thread current = connector;
+        if (current != null) {
+            current.interrupt();
+        }
+        ioExecutor.shutdownNow();
+    }
+    
+    /**
+     * Выполняет операцию с дедлайном, повторами и учётом в автомате защиты.
+     * FileNotFoundException не считается сбоем кластера и не повторяется.
+     * Попытка, не уложившаяся в дедлайн, не прерывается (interrupt закрыл бы общее
+     * IPC-соединение клиента Hadoop): её поток освобождается по таймауту самого клиента
+     * @param operation имя операции для счётчиков (read, write, list, scan)
+     * @param timeoutMs дедлайн одной попытки
+     * @param action операция
+     */
+    private <T> T execute(String operation, long timeoutMs, StorageCall<T> action) throws IOException {
+        return execute(operation, timeoutMs, true, action);
+    }
+    
+    /**
+     * @param idempotent false для записи: прерванная по дедлайну попытка может
+     *                   держать аренду файла в HDFS, и повтор create завершился бы
+     *                   AlreadyBeingCreatedException, поэтому после таймаута запись не повторяется
+     */
+    private <T> T execute(String operation, long timeoutMs, boolean idempotent, StorageCall<T> action)
+            throws IOException {
+        metrics.increment(operation, "calls");
+        
+        if (!breaker.allowRequest()) {
+            metrics.increment(operation, "rejected");
+            throw new IOException("HDFS временно недоступен (автомат защиты разомкнут)");
+        }
+        
+        long started = System.nanoTime();
+        IOException lastError = null;
+        boolean timedOut = false;
+        
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            Future<T> future;
+            try {
+                future = ioExecutor.submit(IoContext.wrap(action::call));
+            } catch (RejectedExecutionException e) {
+                metrics.increment(operation, "rejected");
+                throw new IOException("Превышено число одновременных операций с HDFS");
+            }
+            
+            try {
+                T result = future.get(timeoutMs, TimeUnit.MILLISECONDS);
+                breaker.onSuccess();
+                metrics.increment(operation, "success");
+                metrics.add(operation, "totalMillis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                return result;
+            } catch (TimeoutException e) {
+                future.cancel(false);
+                timedOut = true;
+                metrics.increment(operation, "timeouts");
+                lastError = new IOException("Таймаут операции " + operation + " (" + timeoutMs + " мс)");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof FileNotFoundException) {
+                    throw (FileNotFoundException) e.getCause();
+                }
+                lastError = e.getCause() instanceof IOException
+                    ? (IOException) e.getCause() : new IOException(e.getCause());
+            } catch (InterruptedException e) {
+                future.cancel(false);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Операция " + operation + " прервана");
+            }
+            
+            breaker.onFailure();
+            if (attempt == maxAttempts || !breaker.allowRequest() || (timedOut && !idempotent)) {
+                break;
+            }
+            
+            // Экспоненциальная задержка с полным случайным разбросом
+            long cap = Math.min(retryMaxDelayMs, retryBaseDelayMs << Math.min(attempt - 1, 20));
+            long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+            System.err.println("Повтор " + operation + " через " + delay + " мс: " + lastError.getMessage());
+            metrics.increment(operation, "retries");
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Операция " + operation + " прервана");
+            }
+        }
+        
+        metrics.increment(operation, "failures");
+        metrics.add(operation, "totalMillis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        throw lastError;
+    }
+    
+    /**
+     * Счётчики операций, состояние автомата защиты и статистика hedged reads
+     * @return карта показателей для отладочного эндпоинта
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("connected", isConnected());
+        result.put("breaker", breaker.getState().name());
+        result.put("operations", metrics.snapshot());
+        
+        FileSystem raw = fs;
+        while (raw instanceof FilterFileSystem) {
+            raw = ((FilterFileSystem) raw).getRawFileSystem();
+        }
+        if (raw instanceof DistributedFileSystem) {
+            DFSHedgedReadMetrics hedged = ((DistributedFileSystem) raw).getHedgedReadMetrics();
+            result.put("hedgedReads", Map.of(
+                "ops", hedged.getHedgedReadOps(),
+                "wins", hedged.getHedgedReadWins(),
+                "inCurrentThread", hedged.getHedgedReadOpsInCurThread()));
+        }
+        return result;
+    }
+    
+    /**
+     * Преобразует путь приложения в путь файловой системы.
+     * Пути вида /user/booking/... переносятся под hdfs.root (локальный режим),
+     * полные URI из listFiles используются как есть
+     */
+    private Path resolve(String path) {
+        if (hdfsRoot.isEmpty() || !path.startsWith("/")) {
+            return new Path(path);
+        }
+        return new Path(hdfsRoot + path);
+    }
+    
     /**
      * Сохраняет объект в HDFS в виде JSON-файла
      * @param path путь в HDFS (например, /user/booking/bookings/file.json)
@@ -79,21 +451,25 @@ public class HdfsStorageService {
      * @throws IOException при ошибках ввода-вывода
      */
     public void saveJson(String path, Object data) throws IOException {
-        Path hdfsPath = new Path(path);
+        Path hdfsPath = resolve(path);
         
         // Явное указание UTF-8 при сериализации
-        String json = objectMapper.writeValueAsString(data);
-        
-        // Создание директорий, если их нет
-        fs.mkdirs(hdfsPath.getParent());
+        byte[] bytes = objectMapper.writeValueAsString(data).getBytes(StandardCharsets.UTF_8);
         
-        try (FSDataOutputStream out = fs.create(hdfsPath, true)) {
-            // Запись в UTF-8
-            out.write(json.getBytes(StandardCharsets.UTF_8));
-            out.hsync();
-            System.out.println("Сохранен файл: " + path);
-            System.out.println("Размер: " + json.getBytes(StandardCharsets.UTF_8).length + " байт");
-        }
+        execute("write", writeTimeoutMs, false, () -> {
+            // Создание директорий, если их нет
+            fs().mkdirs(hdfsPath.getParent());
+            
+            try (FSDataOutputStream out = fs().create(hdfsPath, true)) {
+                // Запись в UTF-8
+                out.write(bytes);
+                out.hsync();
+            }
+            return null;
+        });
+        IoContext.record(IoStats.Counter.BYTES_WRITTEN, bytes.length);
+        System.out.println("Сохранен файл: " + path);
+        System.out.println("Размер: " + bytes.length + " байт");
     }
 
     /**
@@ -104,64 +480,292 @@ public class HdfsStorageService {
      * @throws IOException при ошибках ввода-вывода
      */
     public <T> T readJson(String path, Class<T> valueType) throws IOException {
-        Path hdfsPath = new Path(path);
+        Path hdfsPath = resolve(path);
         
-        if (!fs.exists(hdfsPath)) {
+        byte[] bytes = execute("read", readTimeoutMs, () -> {
+            if (!fs().exists(hdfsPath)) {
+                return null;
+            }
+            
+            try (FSDataInputStream in = fs().open(hdfsPath)) {
+                // Чтение файла полностью позиционным чтением (к нему применяются hedged reads)
+                byte[] content = new byte[(int) fs().getFileStatus(hdfsPath).getLen()];
+                in.readFully(0, content);
+                return content;
+            }
+        });
+        
+        if (bytes == null) {
             return null;
         }
+        IoContext.record(IoStats.Counter.BYTES_READ, bytes.length);
         
-        try (FSDataInputStream in = fs.open(hdfsPath)) {
-            // Чтение файла полностью
-            byte[] bytes = new byte[(int) fs.getFileStatus(hdfsPath).getLen()];
-            in.readFully(bytes);
-            
-            // Декодирование в UTF-8
-            String json = new String(bytes, StandardCharsets.UTF_8);
-            System.out.println("Прочитан файл: " + path);
-            System.out.println("Содержимое: " + json.substring(0, Math.min(100, json.length())) + "...");
-            
-            return objectMapper.readValue(json, valueType);
+        // Декодирование в UTF-8
+        String json = new String(bytes, StandardCharsets.UTF_8);
+        System.out.println("Прочитан файл: " + path);
+        System.out.println("Содержимое: " + json.substring(0, Math.min(100, json.length())) + "...");
+        
+        return objectMapper.readValue(json, valueType);
+    }
+    
+    /**
+     * Сохраняет список объектов в сжатый gzip-файл (по одному JSON на строку)
+     * Запись идёт во временный файл, который затем атомарно заменяет исходный
+     * (см. replace; оставшийся после сбоя .tmp подхватывается при чтении)
+     * @param path путь в HDFS (например, /user/booking/archive/2024/01.ndjson.gz)
+     * @param items объекты для сохранения
+     * @throws IOException при ошибках ввода-вывода
+     */
+    public void saveJsonLinesGzip(String path, List<?> items) throws IOException {
+        Path hdfsPath = resolve(path);
+        Path tmpPath = resolve(path + ".tmp");
+        
+        // Архив может быть большим, поэтому дедлайн как у полного обхода
+        execute("write", scanTimeoutMs, false, () -> {
+            fs().mkdirs(hdfsPath.getParent());
+            try (FSDataOutputStream out = fs().create(tmpPath, true)) {
+                GZIPOutputStream gzip = new GZIPOutputStream(out);
+                Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+                for (Object item : items) {
+                    writer.write(objectMapper.writeValueAsString(item));
+                    writer.write('\n');
+                }
+                writer.flush();
+                gzip.finish();
+                out.hsync();
+                IoContext.record(IoStats.Counter.BYTES_WRITTEN, out.getPos());
+            }
+            replace(tmpPath, hdfsPath);
+            return null;
+        });
+        System.out.println("Сохранен архив: " + path + " (записей: " + items.size() + ")");
+    }
+    
+    /**
+     * Атомарно заменяет target файлом tmpPath (rename с перезаписью через FileContext).
+     * В HDFS это одна операция NameNode: файл назначения не пропадает ни на миг.
+     * Вызывается только внутри execute
+     */
+    private void replace(Path tmpPath, Path target) throws IOException {
+        fs();
+        IoContext.record(IoStats.Counter.RENAME, 1);
+        fileContext.rename(tmpPath, target, Options.Rename.OVERWRITE);
+    }
+    
+    /**
+     * Восстановление после сбоя между записью временного файла и заменой:
+     * если файла нет, а рядом лежит полный .tmp, он становится файлом.
+     * Для gzip полнота проверяется чтением до конца; недописанный .tmp удаляется
+     * (его содержимое ещё не удалено из источника). Вызывается только внутри execute
+     * @param path путь к файлу в HDFS
+     * @param gzip проверять ли .tmp как gzip-файл
+     * @return true если файл восстановлен
+     */
+    private boolean recoverPending(String path, boolean gzip) throws IOException {
+        Path tmpPath = resolve(path + ".tmp");
+        if (!fs().exists(tmpPath)) {
+            return false;
         }
+        if (gzip) {
+            try (InputStream in = new GZIPInputStream(fs().open(tmpPath))) {
+                in.transferTo(OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                System.err.println("Недописанный временный файл удалён: " + path + ".tmp (" + e.getMessage() + ")");
+                fs().delete(tmpPath, false);
+                return false;
+            }
+        }
+        replace(tmpPath, resolve(path));
+        System.out.println("Файл восстановлен из временного: " + path);
+        return true;
     }
     
     /**
-     * Удаляет файл из HDFS
+     * Читает сжатый gzip-файл с JSON-строками
      * @param path путь к файлу в HDFS
-     * @return true если удаление успешно, false в противном случае
+     * @param valueType класс записей
+     * @return список записей (пустой, если файла нет)
      * @throws IOException при ошибках ввода-вывода
      */
-    public boolean delete(String path) throws IOException {
-        System.out.println("Удаление файла: " + path);
+    public <T> List<T> readJsonLinesGzip(String path, Class<T> valueType) throws IOException {
+        List<T> result = new ArrayList<>();
+        forEachJsonLineGzip(path, valueType, result::add);
+        System.out.println("Прочитан архив: " + path + " (записей: " + result.size() + ")");
+        return result;
+    }
+    
+    /**
+     * Потоково читает сжатый gzip-файл с JSON-строками, не собирая записи в список.
+     * Под дедлайном и с повторами только открытие файла: повтор чтения с середины
+     * передал бы обработчику одни и те же записи дважды
+     * @param path путь к файлу в HDFS
+     * @param valueType класс записей
+     * @param action обработчик каждой записи
+     * @return количество прочитанных записей (0, если файла нет)
+     * @throws IOException при ошибках ввода-вывода
+     */
+    public <T> long forEachJsonLineGzip(String path, Class<T> valueType, Consumer<T> action)
+            throws IOException {
+        Path hdfsPath = resolve(path);
+        // Восстановление читает весь временный файл, поэтому дедлайн как у полного обхода
+        FSDataInputStream in = execute("read", scanTimeoutMs, () -> {
+            if (!fs().exists(hdfsPath) && !recoverPending(path, true)) {
+                return null;
+            }
+            return fs().open(hdfsPath);
+        });
+        if (in == null) {
+            return 0;
+        }
         
-        Path hdfsPath = new Path(path);
+        long count = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(in), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    action.accept(objectMapper.readValue(line, valueType));
+                    count++;
+                }
+            }
+            IoContext.record(IoStats.Counter.BYTES_READ, in.getPos());
+        }
+        return count;
+    }
+    
+    /**
+     * Копирует локальный файл в HDFS атомарно: запись во временный файл и переименование
+     * @param localFile локальный файл
+     * @param path путь к файлу в HDFS
+     * @throws IOException при ошибках ввода-вывода
+     */
+    public void uploadFile(File localFile, String path) throws IOException {
+        Path hdfsPath = resolve(path);
+        Path tmpPath = resolve(path + ".tmp");
         
-        // Проверка существования файла
-        boolean exists = fs.exists(hdfsPath);
+        execute("write", scanTimeoutMs, false, () -> {
+            fs().mkdirs(hdfsPath.getParent());
+            try (InputStream in = new FileInputStream(localFile);
+                 FSDataOutputStream out = fs().create(tmpPath, true)) {
+                IoContext.record(IoStats.Counter.BYTES_WRITTEN, in.transferTo(out));
+                out.hsync();
+            }
+            replace(tmpPath, hdfsPath);
+            return null;
+        });
+        System.out.println("Загружен файл: " + path + " (" + localFile.length() + " байт)");
+    }
+    
+    /**
+     * Копирует файл из HDFS в локальный файл (через временный файл рядом с ним)
+     * @param path путь к файлу в HDFS
+     * @param localFile куда сохранить
+     * @return false если файла в HDFS нет
+     * @throws IOException при ошибках ввода-вывода
+     */
+    public boolean downloadFile(String path, File localFile) throws IOException {
+        Path hdfsPath = resolve(path);
+        File tmpFile = new File(localFile.getPath() + ".tmp");
         
-        if (!exists) {
-            System.out.println("Файл не найден");
+        // Повтор перезаписывает локальный временный файл целиком
+        boolean found = execute("read", scanTimeoutMs, () -> {
+            if (!fs().exists(hdfsPath) && !recoverPending(path, false)) {
+                return false;
+            }
+            try (FSDataInputStream in = fs().open(hdfsPath);
+                 OutputStream out = new FileOutputStream(tmpFile)) {
+                IoContext.record(IoStats.Counter.BYTES_READ, in.transferTo(out));
+            }
+            return true;
+        });
+        if (!found) {
             return false;
         }
+        Files.move(tmpFile.toPath(), localFile.toPath(),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Скачан файл: " + path + " (" + localFile.length() + " байт)");
+        return true;
+    }
+    
+    /**
+     * Удаляет файл из HDFS
+     * @param path путь к файлу в HDFS
+     * @return true если удаление успешно, false в противном случае
+     * @throws IOException при ошибках ввода-вывода
+     */
+    public boolean delete(String path) throws IOException {
+        System.out.println("Удаление файла: " + path);
         
-        // Проверка, файл это или папка
-        boolean isFile = fs.getFileStatus(hdfsPath).isFile();
-        System.out.println("Это файл: " + isFile);
-        
-        // Попытка удаления
-        boolean deleted = fs.delete(hdfsPath, false);
+        Path hdfsPath = resolve(path);
         
-        if (deleted) {
-            System.out.println("Файл успешно удален из HDFS");
-        } else {
-            System.out.println("Ошибка при удалении файла");
+        return execute("write", writeTimeoutMs, false, () -> {
+            // Проверка существования файла
+            boolean exists = fs().exists(hdfsPath);
             
-            // Проверка прав доступа
-            FileStatus status = fs.getFileStatus(hdfsPath);
-            System.out.println("Владелец: " + status.getOwner());
-            System.out.println("Права: " + status.getPermission());
-        }
-        
-        return deleted;
+            if (!exists) {
+                System.out.println("Файл не найден");
+                return false;
+            }
+            
+            // Проверка, файл это или папка
+            boolean isFile = fs().getFileStatus(hdfsPath).isFile();
+            System.out.println("Это файл: " + isFile);
+            
+            // Попытка удаления
+            boolean deleted = fs().delete(hdfsPath, false);
+            
+            if (deleted) {
+                System.out.println("Файл успешно удален из HDFS");
+            } else {
+                System.out.println("Ошибка при удалении файла");
+                
+                // Проверка прав доступа
+                FileStatus status = fs().getFileStatus(hdfsPath);
+                System.out.println("Владелец: " + status.getOwner());
+                System.out.println("Права: " + status.getPermission());
+            }
+            
+            return deleted;
+        });
+    }
+    
+    /**
+     * Рекурсивно удаляет папку из HDFS
+     * @param path путь к папке
+     * @return true если удаление успешно
+     * @throws IOException при ошибках ввода-вывода
+     */
+    public boolean deleteDirectory(String path) throws IOException {
+        System.out.println("Удаление папки: " + path);
+        Path dirPath = resolve(path);
+        return execute("write", scanTimeoutMs, false, () -> fs().delete(dirPath, true));
+    }
+    
+    /**
+     * Перемещает файл внутри HDFS (создаёт папку назначения при необходимости)
+     * @param source исходный путь
+     * @param target путь назначения
+     * @return true если перемещение успешно
+     * @throws IOException при ошибках ввода-вывода
+     */
+    public boolean rename(String source, String target) throws IOException {
+        Path sourcePath = resolve(source);
+        Path targetPath = resolve(target);
+        return execute("write", writeTimeoutMs, false, () -> {
+            fs().mkdirs(targetPath.getParent());
+            return fs().rename(sourcePath, targetPath);
+        });
+    }
+
+    /**
+     * Создаёт папку (вместе с родительскими), если её нет
+     * @param path путь к папке в HDFS
+     * @return true если папка существует или создана
+     * @throws IOException при ошибках ввода-вывода
+     */
+    public boolean mkdirs(String path) throws IOException {
+        Path dirPath = resolve(path);
+        return execute("write", writeTimeoutMs, () -> fs().mkdirs(dirPath));
     }
     
     /**
@@ -171,7 +775,25 @@ public class HdfsStorageService {
      * @throws IOException при ошибках ввода-вывода
      */
     public boolean exists(String path) throws IOException {
-        return fs.exists(new Path(path));
+        Path hdfsPath = resolve(path);
+        return execute("read", readTimeoutMs, () -> fs().exists(hdfsPath));
+    }
+    
+    /**
+     * Время последнего изменения файла
+     * @param path путь к файлу в HDFS
+     * @return мс от эпохи или 0, если файла нет
+     * @throws IOException при ошибках ввода-вывода
+     */
+    public long modificationTime(String path) throws IOException {
+        Path hdfsPath = resolve(path);
+        return execute("read", readTimeoutMs, () -> {
+            try {
+                return fs().getFileStatus(hdfsPath).getModificationTime();
+            } catch (FileNotFoundException e) {
+                return 0L;
+            }
+        });
     }
     
     /**
@@ -181,26 +803,83 @@ public class HdfsStorageService {
      * @throws IOException при ошибках ввода-вывода
      */
     public List<String> listFiles(String directory) throws IOException {
-        Path dirPath = new Path(directory);
-        Set<String> uniqueFiles = new HashSet<>();
+        Path dirPath = resolve(directory);
         
         System.out.println("Поиск файлов в: " + directory);
         
-        if (!fs.exists(dirPath)) {
-            System.out.println("Папка не существует");
-            return new ArrayList<>();
-        }
+        List<String> files = execute("scan", scanTimeoutMs, () -> {
+            Set<String> uniqueFiles = new HashSet<>();
+            
+            if (!fs().exists(dirPath)) {
+                System.out.println("Папка не существует");
+                return new ArrayList<>();
+            }
+            
+            // Рекурсивный обход всех файлов
+            RemoteIterator<LocatedFileStatus> iterator = fs().listFiles(dirPath, true);
+            while (iterator.hasNext()) {
+                LocatedFileStatus status = iterator.next();
+                if (status.isFile()) {
+                    uniqueFiles.add(status.getPath().toString());
+                }
+            }
+            return new ArrayList<>(uniqueFiles);
+        });
         
-        // Рекурсивный обход всех файлов
-        RemoteIterator<LocatedFileStatus> iterator = fs.listFiles(dirPath, true);
-        while (iterator.hasNext()) {
-            LocatedFileStatus status = iterator.next();
-            if (status.isFile()) {
-                uniqueFiles.add(status.getPath().toString());
+        System.out.println("Найдено уникальных файлов: " + files.size());
+        return files;
+    }
+    
+    /**
+     * Рекурсивно ищет файлы, изменённые позже указанного момента.
+     * Читаются только метаданные листинга, содержимое файлов не открывается
+     * @param directory путь к директории в HDFS
+     * @param sinceMillis время изменения (мс от эпохи), после которого файл попадает в список
+     * @return список путей к файлам
+     * @throws IOException при ошибках ввода-вывода
+     */
+    public List<String> listFilesModifiedAfter(String directory, long sinceMillis) throws IOException {
+        Path dirPath = resolve(directory);
+        
+        return execute("scan", scanTimeoutMs, () -> {
+            List<String> files = new ArrayList<>();
+            if (!fs().exists(dirPath)) {
+                return files;
             }
-        }
+            
+            RemoteIterator<LocatedFileStatus> iterator = fs().listFiles(dirPath, true);
+            while (iterator.hasNext()) {
+                LocatedFileStatus status = iterator.next();
+                if (status.isFile() && status.getModificationTime() > sinceMillis) {
+                    files.add(status.getPath().toString());
+                }
+            }
+            return files;
+        });
+    }
+    
+    /**
+     * Возвращает имена вложенных папок (без рекурсии)
+     * @param directory путь к директории в HDFS
+     * @return отсортированный список имён подпапок
+     * @throws IOException при ошибках ввода-вывода
+     */
+    public List<String> listDirectories(String directory) throws IOException {
+        Path dirPath = resolve(directory);
         
-        System.out.println("Найдено уникальных файлов: " + uniqueFiles.size());
-        return new ArrayList<>(uniqueFiles);
+        return execute("list", listTimeoutMs, () -> {
+            List<String> names = new ArrayList<>();
+            if (!fs().exists(dirPath)) {
+                return names;
+            }
+            
+            for (FileStatus status : fs().listStatus(dirPath)) {
+                if (status.isDirectory()) {
+                    names.add(status.getPath().getName());
+                }
+            }
+            names.sort(null);
+            return names;
+        });
     }
 }
\ No newline at end of file
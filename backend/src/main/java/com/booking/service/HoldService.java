@@ -0,0 +1,233 @@
+package com.booking.service;
+
+import com.booking.util.HashedTimingWheel;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HoldService - кратковременное удержание места на время диалога подтверждения
+ * Удержание живёт только в памяти и истекает через booking.hold.ttl-seconds.
+ * Истечение обслуживает одно хешированное колесо таймеров, а не таймер на каждое
+ * удержание. Пока удержание активно, слот считается занятым для других пользователей
+ */
+@Service
+public class HoldService {
+
+    /**
+     * Активное удержание слота
+     */
+    public static final class Hold {
+        private final String id;
+        private final String userId;
+        private final String workplaceId;
+        private final LocalDate date;
+        private final int start;
+        private final int end;
+        private final Instant expiresAt;
+        private HashedTimingWheel.Timeout timeout;
+
+        private Hold(String id, String userId, String workplaceId, LocalDate date,
+                     int start, int end, Instant expiresAt) {
+            this.id = id;
+            this.userId = userId;
+            this.workplaceId = workplaceId;
+            this.date = date;
+            this.start = start;
+            this.end = end;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getId() { return id; }
+        public String getUserId() { return userId; }
+        public Instant getExpiresAt() { return expiresAt; }
+
+        private boolean overlaps(int otherStart, int otherEnd) {
+            return start < otherEnd && otherStart < end;
+        }
+    }
+
+    private static final int LOCK_STRIPES = 64;
+
+    @Autowired
+    private BookingService bookingService;
+
+    // Время жизни удержания, секунд
+    @Value("${booking.hold.ttl-seconds:120}")
+    private long ttlSeconds;
+
+    private HashedTimingWheel wheel;
+
+    // holdId -> удержание
+    private final Map<String, Hold> holds = new ConcurrentHashMap<>();
+
+    // место|дата -> удержания этого места на дату (для проверки пересечений)
+    private final Map<String, List<Hold>> holdsBySlot = new ConcurrentHashMap<>();
+
+    // Блокировки по слотам: проверка и удержание одного места выполняются атомарно
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        // Тик 100 мс, 1024 ячейки - один оборот чуть больше 100 секунд
+        wheel = new HashedTimingWheel("hold-expiry", 100, 1024, null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * Удерживает слот, если он свободен (нет бронирований и чужих удержаний)
+     * @return удержание или null, если слот занят
+     * @throws IllegalArgumentException если не указаны пользователь, место или время
+     */
+    public Hold hold(String userId, String workplaceId, LocalDate date,
+                     String startTime, String endTime) throws IOException {
+        if (isBlank(userId) || isBlank(workplaceId) || date == null || isBlank(startTime) || isBlank(endTime)) {
+            throw new IllegalArgumentException("Нужны userId, workplaceId, date, startTime и endTime");
+        }
+        if (startTime.compareTo(endTime) >= 0) {
+            throw new IllegalArgumentException("Время начала должно быть раньше окончания");
+        }
+        int start = BookingService.minuteOfDay(startTime);
+        int end = BookingService.minuteOfDay(endTime);
+
+        synchronized (lockFor(workplaceId, date)) {
+            if (isHeldByOther(workplaceId, date, start, end, userId)
+                    || !bookingService.isSlotFree(workplaceId, date, startTime, endTime)) {
+                return null;
+            }
+
+            Hold hold = new Hold(UUID.randomUUID().toString(), userId, workplaceId, date,
+                start, end, Instant.now().plusSeconds(ttlSeconds));
+            holds.put(hold.id, hold);
+            holdsBySlot.compute(slotKey(workplaceId, date), (key, list) -> {
+                List<Hold> slotHolds = list != null ? list : new CopyOnWriteArrayList<>();
+                slotHolds.add(hold);
+                return slotHolds;
+            });
+            hold.timeout = wheel.schedule(() -> expire(hold), ttlSeconds, TimeUnit.SECONDS);
+
+            System.out.println("Место удержано: " + workplaceId + " " + date + " " + startTime
+                + "-" + endTime + " до " + hold.expiresAt);
+            return hold;
+        }
+    }
+
+    /**
+     * Занят ли слот удержанием другого пользователя
+     * @param userId пользователь, чьи удержания не учитываются (может быть null)
+     */
+    public boolean isHeldByOther(String workplaceId, LocalDate date, String startTime, String endTime,
+                                 String userId) {
+        return isHeldByOther(workplaceId, date,
+            BookingService.minuteOfDay(startTime), BookingService.minuteOfDay(endTime), userId);
+    }
+
+    private boolean isHeldByOther(String workplaceId, LocalDate date, int start, int end, String userId) {
+        List<Hold> slotHolds = holdsBySlot.get(slotKey(workplaceId, date));
+        if (slotHolds == null) {
+            return false;
+        }
+        for (Hold hold : slotHolds) {
+            if (hold.overlaps(start, end) && !Objects.equals(hold.userId, userId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Проверяет, что удержание существует и покрывает бронируемый слот
+     */
+    public boolean matches(String holdId, String userId, String workplaceId, LocalDate date,
+                           String startTime, String endTime) {
+        Hold hold = holds.get(holdId);
+        return hold != null
+            && Objects.equals(hold.userId, userId)
+            && Objects.equals(hold.workplaceId, workplaceId)
+            && Objects.equals(hold.date, date)
+            && hold.start <= BookingService.minuteOfDay(startTime)
+            && hold.end >= BookingService.minuteOfDay(endTime);
+    }
+
+    /**
+     * Снимает удержание (при подтверждении или закрытии диалога)
+     * @return true если удержание было активно
+     */
+    public boolean release(String holdId) {
+        Hold hold = holds.remove(holdId);
+        if (hold == null) {
+            return false;
+        }
+        if (hold.timeout != null) {
+            hold.timeout.cancel();
+        }
+        removeFromSlot(hold);
+        return true;
+    }
+
+    /**
+     * Блокировка слота; используется и при подтверждении бронирования,
+     * чтобы проверка удержаний и запись были атомарны относительно новых удержаний
+     */
+    public Object lockFor(String workplaceId, LocalDate date) {
+        return locks[Math.floorMod(slotKey(workplaceId, date).hashCode(), LOCK_STRIPES)];
+    }
+
+    /**
+     * Блокировки нескольких мест на дату без повторов и в порядке номеров полос:
+     * захват в одном порядке исключает взаимную блокировку групповых бронирований
+     */
+    public List<Object> locksFor(Collection<String> workplaceIds, LocalDate date) {
+        SortedSet<Integer> stripes = new TreeSet<>();
+        for (String workplaceId : workplaceIds) {
+            stripes.add(Math.floorMod(slotKey(workplaceId, date).hashCode(), LOCK_STRIPES));
+        }
+        List<Object> result = new ArrayList<>(stripes.size());
+        for (int stripe : stripes) {
+            result.add(locks[stripe]);
+        }
+        return result;
+    }
+
+    private void expire(Hold hold) {
+        if (holds.remove(hold.id, hold)) {
+            removeFromSlot(hold);
+            System.out.println("Удержание истекло: " + hold.id);
+        }
+    }
+
+    private void removeFromSlot(Hold hold) {
+        holdsBySlot.computeIfPresent(slotKey(hold.workplaceId, hold.date), (key, list) -> {
+            list.remove(hold);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String slotKey(String workplaceId, LocalDate date) {
+        return workplaceId + "|" + date;
+    }
+}
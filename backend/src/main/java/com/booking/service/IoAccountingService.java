@@ -0,0 +1,105 @@
+package com.booking.service;
+
+import com.booking.util.IoBudget;
+import com.booking.util.IoStats;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * IoAccountingService - сводка обращений к хранилищу по эндпоинтам
+ * Для каждого эндпоинта хранит число запросов, сумму и максимум каждого счётчика
+ * и число превышений бюджета (booking.io.budgets)
+ */
+@Service
+public class IoAccountingService {
+
+    /**
+     * Сводка одного эндпоинта; поля защищены самим объектом
+     */
+    private static class EndpointTotals {
+        private long requests;
+        private long overBudget;
+        private final Map<String, Long> sum = new LinkedHashMap<>();
+        private final Map<String, Long> max = new LinkedHashMap<>();
+
+        synchronized void add(IoStats stats, boolean exceeded) {
+            requests++;
+            if (exceeded) {
+                overBudget++;
+            }
+            stats.toMap().forEach((name, value) -> {
+                sum.merge(name, value, Long::sum);
+                max.merge(name, value, Math::max);
+            });
+        }
+
+        synchronized Map<String, Object> snapshot(Long budget) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requests", requests);
+            Map<String, Object> average = new LinkedHashMap<>();
+            sum.forEach((name, value) -> average.put(name, Math.round(value * 100.0 / requests) / 100.0));
+            result.put("avg", average);
+            result.put("max", new LinkedHashMap<>(max));
+            if (budget != null) {
+                result.put("budget", budget);
+                result.put("overBudget", overBudget);
+            }
+            return result;
+        }
+    }
+
+    // Бюджет RPC по эндпоинтам, например "GET /api/bookings/{id}=4, POST /api/bookings=8"
+    @Value("${booking.io.budgets:}")
+    private String budgetSpec;
+
+    private IoBudget budget;
+
+    private final Map<String, EndpointTotals> totals = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        budget = IoBudget.parse(budgetSpec);
+        if (!budget.isEmpty()) {
+            System.out.println("Бюджет обращений к хранилищу: " + budget.toMap());
+        }
+    }
+
+    public IoBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Учитывает завершённый запрос
+     * @param endpoint метод и шаблон пути
+     * @param stats счётчики запроса
+     * @return true если запрос превысил бюджет
+     */
+    public boolean record(String endpoint, IoStats stats) {
+        boolean exceeded = budget.isExceeded(endpoint, stats);
+        if (exceeded) {
+            System.err.println("Превышен бюджет обращений к хранилищу: " + endpoint + " - "
+                + stats.toHeader() + " (бюджет " + budget.limitFor(endpoint) + ")");
+        }
+        totals.computeIfAbsent(endpoint, key -> new EndpointTotals()).add(stats, exceeded);
+        return exceeded;
+    }
+
+    /**
+     * Сводка по всем эндпоинтам для отладочного эндпоинта
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new TreeMap<>();
+        totals.forEach((endpoint, endpointTotals) ->
+            result.put(endpoint, endpointTotals.snapshot(budget.limitFor(endpoint))));
+        return result;
+    }
+
+    public void reset() {
+        totals.clear();
+    }
+}
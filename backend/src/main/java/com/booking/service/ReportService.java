@@ -0,0 +1,268 @@
+package com.booking.service;
+
+import com.booking.model.Booking;
+import com.booking.model.Workplace;
+import com.booking.util.IoContext;
+import com.booking.util.IoStats;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * ReportService - отчёты о загрузке рабочих мест
+ * Загрузка считается по дневным партициям параллельно (отдельный ForkJoinPool),
+ * для каждого дня накапливаются минуты бронирований в примитивном массиве
+ * [группа (филиал + тип)][час суток]. Результаты завершённых дней кэшируются,
+ * поэтому повторно пересчитываются только текущий и будущие дни
+ */
+@Service
+public class ReportService {
+
+    private static final int HOURS = 24;
+    private static final int MAX_DAYS = 3660;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private WorkplaceService workplaceService;
+
+    // Количество потоков для чтения дневных партиций
+    @Value("${booking.reports.parallelism:8}")
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+    // Группы отчёта: филиал + тип места, и индекс группы для каждого места
+    private final List<String[]> groups = new ArrayList<>();
+    private final Map<String, Integer> groupByWorkplace = new HashMap<>();
+    private int[] workplacesPerGroup;
+
+    // Кэш завершённых дней: дата -> минуты [группа * 24 + час]
+    private final Map<LocalDate, long[]> completedDays = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Map<String, Integer> groupIndex = new LinkedHashMap<>();
+        List<Integer> counts = new ArrayList<>();
+
+        for (Workplace workplace : workplaceService.getAllWorkplaces()) {
+            String key = workplace.getBranch() + "/" + workplace.getType();
+            Integer index = groupIndex.get(key);
+            if (index == null) {
+                index = groups.size();
+                groupIndex.put(key, index);
+                groups.add(new String[] { workplace.getBranch(), workplace.getType() });
+                counts.add(0);
+            }
+            counts.set(index, counts.get(index) + 1);
+            groupByWorkplace.put(workplace.getId(), index);
+        }
+
+        workplacesPerGroup = counts.stream().mapToInt(Integer::intValue).toArray();
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Сбрасывает кэш дня при создании или отмене бронирования на эту дату
+     */
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        try {
+            completedDays.remove(LocalDate.parse(event.getBooking().getDate(), BookingService.DATE_FORMAT));
+        } catch (Exception e) {
+            System.err.println("Не удалось сбросить кэш отчёта: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Отчёт о загрузке по филиалам, типам мест и часам суток
+     * @param from начальная дата (включительно)
+     * @param to конечная дата (включительно)
+     * @param branch филиал или null для всех филиалов
+     * @return вложенная карта: филиал -> тип -> показатели
+     */
+    public Map<String, Object> utilization(LocalDate from, LocalDate to, String branch)
+            throws IOException, InterruptedException {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Дата окончания раньше даты начала");
+        }
+        long dayCount = ChronoUnit.DAYS.between(from, to) + 1;
+        if (dayCount > MAX_DAYS) {
+            throw new IllegalArgumentException("Слишком большой период: " + dayCount + " дней");
+        }
+
+        List<LocalDate> days = new ArrayList<>((int) dayCount);
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            days.add(day);
+        }
+
+        // Архив месяца читается один раз за запрос, даже если в нём много дней диапазона
+        Map<YearMonth, Map<LocalDate, List<Booking>>> archiveMonths = new ConcurrentHashMap<>();
+        LocalDate today = LocalDate.now();
+        int size = groups.size() * HOURS;
+
+        // Чтения из потоков пула учитываются в счётчиках запроса
+        IoStats io = IoContext.current();
+
+        long[] totals;
+        try {
+            totals = pool.submit(() -> days.parallelStream()
+                .map(day -> IoContext.supply(io, () -> dayMinutes(day, today, archiveMonths)))
+                .collect(() -> new long[size], ReportService::addInto, ReportService::addInto)
+            ).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+
+        return buildReport(totals, from, to, dayCount, branch);
+    }
+
+    /**
+     * Минуты бронирований одного дня по группам и часам (с кэшем для завершённых дней)
+     */
+    private long[] dayMinutes(LocalDate day, LocalDate today,
+                              Map<YearMonth, Map<LocalDate, List<Booking>>> archiveMonths) {
+        long[] cached = completedDays.get(day);
+        if (cached != null) {
+            return cached;
+        }
+
+        long[] minutes = new long[groups.size() * HOURS];
+        try {
+            Map<String, Booking> bookings = new HashMap<>();
+            if (day.isBefore(archiveService.horizon())) {
+                Map<LocalDate, List<Booking>> month = archiveMonths.computeIfAbsent(
+                    YearMonth.from(day), this::readArchiveMonth);
+                for (Booking booking : month.getOrDefault(day, List.of())) {
+                    bookings.put(booking.getId(), booking);
+                }
+            }
+            for (Booking booking : bookingService.readDay(day)) {
+                bookings.put(booking.getId(), booking);
+            }
+
+            for (Booking booking : bookings.values()) {
+                accumulate(minutes, booking);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (day.isBefore(today)) {
+            completedDays.put(day, minutes);
+        }
+        return minutes;
+    }
+
+    private Map<LocalDate, List<Booking>> readArchiveMonth(YearMonth month) {
+        try {
+            return archiveService.readArchived(month.atDay(1), month.atEndOfMonth()).stream()
+                .collect(Collectors.groupingBy(b -> LocalDate.parse(b.getDate(), BookingService.DATE_FORMAT)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Раскладывает интервал бронирования по часам суток
+     */
+    private void accumulate(long[] minutes, Booking booking) {
+        if (booking.isCancelled()) {
+            return;
+        }
+        Integer group = groupByWorkplace.get(booking.getWorkplaceId());
+        if (group == null || booking.getStartTime() == null || booking.getEndTime() == null) {
+            return;
+        }
+
+        int start;
+        int end;
+        try {
+            start = BookingService.minuteOfDay(booking.getStartTime());
+            end = BookingService.minuteOfDay(booking.getEndTime());
+        } catch (Exception e) {
+            return;
+        }
+
+        int base = group * HOURS;
+        for (int hour = start / 60; hour < HOURS && hour * 60 < end; hour++) {
+            int overlap = Math.min(end, (hour + 1) * 60) - Math.max(start, hour * 60);
+            if (overlap > 0) {
+                minutes[base + hour] += overlap;
+            }
+        }
+    }
+
+    private static void addInto(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source[i];
+        }
+    }
+
+    private Map<String, Object> buildReport(long[] totals, LocalDate from, LocalDate to,
+                                            long dayCount, String branch) {
+        Map<String, Object> branches = new LinkedHashMap<>();
+
+        for (int g = 0; g < groups.size(); g++) {
+            String groupBranch = groups.get(g)[0];
+            String type = groups.get(g)[1];
+            if (branch != null && !branch.equals(groupBranch)) {
+                continue;
+            }
+
+            long hourCapacity = (long) workplacesPerGroup[g] * 60 * dayCount;
+            long[] hourlyMinutes = new long[HOURS];
+            double[] hourlyUtilization = new double[HOURS];
+            long booked = 0;
+            for (int hour = 0; hour < HOURS; hour++) {
+                hourlyMinutes[hour] = totals[g * HOURS + hour];
+                hourlyUtilization[hour] = hourCapacity == 0 ? 0 : (double) hourlyMinutes[hour] / hourCapacity;
+                booked += hourlyMinutes[hour];
+            }
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("workplaces", workplacesPerGroup[g]);
+            stats.put("bookedMinutes", booked);
+            stats.put("utilization", hourCapacity == 0 ? 0 : (double) booked / (hourCapacity * HOURS));
+            stats.put("hourlyMinutes", hourlyMinutes);
+            stats.put("hourlyUtilization", hourlyUtilization);
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> types = (Map<String, Object>) branches.computeIfAbsent(
+                groupBranch, b -> new LinkedHashMap<String, Object>());
+            types.put(type, stats);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("from", from.format(BookingService.DATE_FORMAT));
+        report.put("to", to.format(BookingService.DATE_FORMAT));
+        report.put("days", dayCount);
+        report.put("branches", branches);
+        return report;
+    }
+}
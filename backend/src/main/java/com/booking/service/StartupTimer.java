@@ -0,0 +1,49 @@
+package com.booking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * StartupTimer - время запуска приложения
+ * Считает от старта JVM до готовности контекста и до подключения к HDFS
+ * (при hdfs.lazy-connect оно завершается позже). Время до первого ответа
+ * снаружи измеряет scripts/startup-benchmark.sh
+ */
+@Service
+public class StartupTimer {
+
+    @Autowired
+    private HdfsStorageService hdfsService;
+
+    private volatile long readyMillis = -1;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        readyMillis = System.currentTimeMillis() - jvmStartMillis();
+        System.out.println("Приложение готово через " + readyMillis + " мс после старта JVM");
+    }
+
+    /**
+     * Показатели запуска для отладочного эндпоинта
+     */
+    public Map<String, Object> report() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jvmStartMillis", jvmStartMillis());
+        result.put("readyAfterMillis", readyMillis);
+        result.put("uptimeMillis", ManagementFactory.getRuntimeMXBean().getUptime());
+        result.put("hdfsConnected", hdfsService.isConnected());
+        result.put("aot", Boolean.getBoolean("spring.aot.enabled"));
+        result.put("cds", ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+            .anyMatch(arg -> arg.startsWith("-XX:SharedArchiveFile")));
+        return result;
+    }
+
+    private static long jvmStartMillis() {
+        return ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+}
@@ -0,0 +1,51 @@
+package com.booking.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StorageMetrics - счётчики операций с хранилищем
+ * Для каждой операции (read, write, list) считаются вызовы, ошибки, таймауты,
+ * повторы, отказы автомата защиты и суммарное время, чтобы хвостовые задержки
+ * HDFS были видны без внешнего мониторинга
+ */
+public class StorageMetrics {
+
+    private static final String[] COUNTERS = {
+        "calls", "success", "failures", "timeouts", "retries", "rejected", "totalMillis"
+    };
+
+    private final Map<String, Map<String, LongAdder>> byOperation = new ConcurrentHashMap<>();
+
+    public void increment(String operation, String counter) {
+        add(operation, counter, 1);
+    }
+
+    public void add(String operation, String counter, long value) {
+        byOperation
+            .computeIfAbsent(operation, op -> {
+                Map<String, LongAdder> counters = new LinkedHashMap<>();
+                for (String name : COUNTERS) {
+                    counters.put(name, new LongAdder());
+                }
+                return counters;
+            })
+            .get(counter)
+            .add(value);
+    }
+
+    /**
+     * Снимок всех счётчиков: операция -> счётчик -> значение
+     */
+    public Map<String, Map<String, Long>> snapshot() {
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        byOperation.forEach((operation, counters) -> {
+            Map<String, Long> values = new LinkedHashMap<>();
+            counters.forEach((name, adder) -> values.put(name, adder.sum()));
+            result.put(operation, values);
+        });
+        return result;
+    }
+}
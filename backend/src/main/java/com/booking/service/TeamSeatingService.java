@@ -0,0 +1,297 @@
+package com.booking.service;
+
+import com.booking.model.Booking;
+import com.booking.model.Workplace;
+import com.booking.util.SpatialGrid;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * TeamSeatingService - подбор и бронирование мест для команды рядом друг с другом
+ * Рабочие места каждого филиала разложены по пространственной сетке (по координатам x/y).
+ * Для каждого свободного места как центра берутся N ближайших свободных мест,
+ * выбирается группа с наименьшим разбросом (наибольшим расстоянием между двумя местами).
+ * Выбранные места бронируются под блокировками слотов в одном порядке: либо вся группа,
+ * либо ничего; если место успели занять, подбор повторяется
+ */
+@Service
+public class TeamSeatingService {
+
+    /**
+     * Результат бронирования группы
+     */
+    public static final class Allocation {
+        private final List<Booking> bookings;
+        private final double spread;
+
+        private Allocation(List<Booking> bookings, double spread) {
+            this.bookings = bookings;
+            this.spread = spread;
+        }
+
+        public List<Booking> getBookings() { return bookings; }
+
+        /** Наибольшее расстояние между двумя местами группы (в единицах плана этажа) */
+        public double getSpread() { return spread; }
+    }
+
+    // Тип мест, которые подбираются для команды (переговорные и залы бронируются отдельно)
+    private static final String SEAT_TYPE = "workplace";
+
+    @Autowired
+    private WorkplaceService workplaceService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingIndex bookingIndex;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private UserService userService;
+
+    // Размер ячейки пространственной сетки (в единицах координат плана)
+    @Value("${booking.team.cell-size:100}")
+    private int cellSize;
+
+    // Максимальный размер команды в одном запросе
+    @Value("${booking.team.max-size:20}")
+    private int maxSize;
+
+    // Сколько раз повторить подбор, если выбранные места заняли параллельно
+    @Value("${booking.team.max-attempts:3}")
+    private int maxAttempts;
+
+    // филиал -> сетка рабочих мест
+    private final Map<String, SpatialGrid<Workplace>> grids = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (String branch : WorkplaceService.BRANCHES) {
+            List<Workplace> seats = new ArrayList<>();
+            for (Workplace workplace : workplaceService.getWorkplaces(branch)) {
+                if (SEAT_TYPE.equals(workplace.getType())) {
+                    seats.add(workplace);
+                }
+            }
+            grids.put(branch, new SpatialGrid<>(seats, cellSize, Workplace::getX, Workplace::getY));
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Подбирает и бронирует места для команды
+     * @param userId пользователь, оформляющий бронирование (должен существовать)
+     * @param branch филиал
+     * @param date дата
+     * @param startTime время начала (ЧЧ:ММ)
+     * @param endTime время окончания (ЧЧ:ММ)
+     * @param members пользователи, на которых оформляются места (по одному месту на каждого,
+     *                все должны быть в справочнике пользователей)
+     * @param purpose цель бронирования
+     * @return бронирования группы или null, если столько свободных мест нет
+     * @throws IllegalArgumentException если пользователь или участник не найден в справочнике
+     */
+    public Allocation bookTeam(String userId, String branch, LocalDate date, String startTime, String endTime,
+                               List<String> members, String purpose) throws IOException {
+        SpatialGrid<Workplace> grid = grids.get(branch);
+        if (grid == null) {
+            throw new IllegalArgumentException("Неизвестный филиал: " + branch);
+        }
+        if (members.isEmpty() || members.size() > maxSize) {
+            throw new IllegalArgumentException("Размер команды должен быть от 1 до " + maxSize);
+        }
+        if (startTime.compareTo(endTime) >= 0) {
+            throw new IllegalArgumentException("Время начала должно быть раньше окончания");
+        }
+        requireKnownUser(userId);
+        for (String member : new LinkedHashSet<>(members)) {
+            requireKnownUser(member);
+        }
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            Set<String> free = freeSeats(branch, date, startTime, endTime, members);
+            List<Workplace> group = mostCompact(grid, free, members.size());
+            if (group == null) {
+                return null;
+            }
+
+            List<String> ids = new ArrayList<>(group.size());
+            group.forEach(workplace -> ids.add(workplace.getId()));
+            List<Booking> booked = withLocks(holdService.locksFor(ids, date), 0,
+                () -> bookIfStillFree(group, branch, date, startTime, endTime, members, purpose));
+            if (booked != null) {
+                System.out.println("Команда размещена: " + ids + " " + date + " " + startTime + "-" + endTime);
+                return new Allocation(booked, spread(group));
+            }
+            System.out.println("Места команды заняты параллельно, повтор подбора (" + attempt + ")");
+        }
+        return null;
+    }
+
+    /**
+     * Свободные рабочие места филиала на интервал: без подтверждённых бронирований
+     * и чужих удержаний. Без индекса партиция дня читается один раз на весь подбор
+     */
+    private Set<String> freeSeats(String branch, LocalDate date, String startTime, String endTime,
+                                  List<String> members) throws IOException {
+        Set<String> busy = bookingIndex.isReady()
+            ? Collections.emptySet()
+            : bookingService.busyWorkplaces(date, startTime, endTime);
+
+        Set<String> free = new HashSet<>();
+        for (Workplace workplace : workplaceService.getWorkplaces(branch)) {
+            String id = workplace.getId();
+            if (!SEAT_TYPE.equals(workplace.getType()) || busy.contains(id)) {
+                continue;
+            }
+            if (bookingIndex.isReady() && !bookingService.isSlotFree(id, date, startTime, endTime)) {
+                continue;
+            }
+            if (!heldByOthers(id, date, startTime, endTime, members)) {
+                free.add(id);
+            }
+        }
+        return free;
+    }
+
+    private void requireKnownUser(String username) throws IOException {
+        if (username == null || username.isBlank() || userService.findByUsername(username) == null) {
+            throw new IllegalArgumentException("Неизвестный пользователь: " + username);
+        }
+    }
+
+    /**
+     * Удержание слота засчитывается, только если оно не принадлежит участнику команды
+     */
+    private boolean heldByOthers(String workplaceId, LocalDate date, String startTime, String endTime,
+                                 List<String> members) {
+        if (!holdService.isHeldByOther(workplaceId, date, startTime, endTime, null)) {
+            return false;
+        }
+        for (String member : members) {
+            if (!holdService.isHeldByOther(workplaceId, date, startTime, endTime, member)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Самая компактная группа из size свободных мест
+     * @return места группы или null, если свободных мест меньше size
+     */
+    private List<Workplace> mostCompact(SpatialGrid<Workplace> grid, Set<String> free, int size) {
+        if (free.size() < size) {
+            return null;
+        }
+
+        List<Workplace> best = null;
+        double bestSpread = Double.MAX_VALUE;
+        double bestTotal = Double.MAX_VALUE;
+        for (String seedId : free) {
+            Workplace seed = workplaceService.findById(seedId);
+            List<Workplace> group = grid.nearest(seed.getX(), seed.getY(), size,
+                workplace -> free.contains(workplace.getId()));
+            if (group.size() < size) {
+                continue;
+            }
+
+            double groupSpread = spread(group);
+            double total = 0;
+            for (Workplace workplace : group) {
+                total += distance(seed, workplace);
+            }
+            if (groupSpread < bestSpread || (groupSpread == bestSpread && total < bestTotal)) {
+                best = group;
+                bestSpread = groupSpread;
+                bestTotal = total;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Под блокировками: повторная проверка мест с дочитыванием партиции дня
+     * (один раз на группу) и бронирование всей группы. Если запись одного
+     * из бронирований не удалась, уже созданные отменяются
+     * @return бронирования или null, если какое-то место уже занято
+     */
+    private List<Booking> bookIfStillFree(List<Workplace> group, String branch, LocalDate date,
+                                          String startTime, String endTime, List<String> members,
+                                          String purpose) throws IOException {
+        bookingService.refreshDay(date);
+        Set<String> busy = bookingIndex.isReady()
+            ? Collections.emptySet()
+            : bookingService.busyWorkplaces(date, startTime, endTime);
+        for (Workplace workplace : group) {
+            String id = workplace.getId();
+            if (heldByOthers(id, date, startTime, endTime, members) || busy.contains(id)
+                    || (bookingIndex.isReady() && !bookingService.isSlotFree(id, date, startTime, endTime))) {
+                return null;
+            }
+        }
+
+        List<Booking> created = new ArrayList<>(group.size());
+        try {
+            for (int i = 0; i < group.size(); i++) {
+                Workplace workplace = group.get(i);
+                Booking booking = new Booking(null, members.get(i), workplace.getId(), workplace.getName(),
+                    branch, date.format(BookingService.DATE_FORMAT), startTime, endTime, purpose, null);
+                created.add(bookingService.createBooking(booking));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Booking booking : created) {
+                try {
+                    bookingService.cancelBooking(booking);
+                } catch (Exception cancelError) {
+                    System.err.println("Не удалось отменить бронирование группы " + booking.getId()
+                        + ": " + cancelError.getMessage());
+                }
+            }
+            throw e;
+        }
+        return created;
+    }
+
+    private interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * Выполняет действие, удерживая все блокировки (вложенные synchronized по порядку)
+     */
+    private static <T> T withLocks(List<Object> locks, int index, LockedAction<T> action) throws IOException {
+        if (index == locks.size()) {
+            return action.run();
+        }
+        synchronized (locks.get(index)) {
+            return withLocks(locks, index + 1, action);
+        }
+    }
+
+    private static double spread(List<Workplace> group) {
+        double max = 0;
+        for (int i = 0; i < group.size(); i++) {
+            for (int j = i + 1; j < group.size(); j++) {
+                max = Math.max(max, distance(group.get(i), group.get(j)));
+            }
+        }
+        return max;
+    }
+
+    private static double distance(Workplace a, Workplace b) {
+        return Math.hypot(a.getX() - b.getX(), a.getY() - b.getY());
+    }
+}
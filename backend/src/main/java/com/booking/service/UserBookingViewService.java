@@ -0,0 +1,195 @@
+package com.booking.service;
+
+import com.booking.model.Booking;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * UserBookingViewService - материализованное представление "мои бронирования"
+ * Для каждого пользователя хранится небольшой отсортированный список предстоящих
+ * бронирований: в памяти и в файле VIEWS_DIR/userId.json (userId из других символов,
+ * чем буквы, цифры, "-" и "_", кодируется, чтобы не выйти за VIEWS_DIR). Список обновляется
+ * инкрементально по BookingChangedEvent и пересобирается из партиций дней
+ * (с учётом журнала записей), только если файла представления нет.
+ * Файл обновляют все экземпляры приложения, поэтому копия в памяти живёт
+ * не дольше booking.views.ttl-ms и затем перечитывается из файла
+ */
+@Service
+public class UserBookingViewService {
+
+    public static final String VIEWS_DIR = "/user/booking/views/";
+
+    // userId, который можно использовать в имени файла как есть
+    private static final Pattern PLAIN_USER_ID = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private static final Comparator<Booking> BY_DATE_AND_TIME = Comparator
+        .comparing((Booking b) -> LocalDate.parse(b.getDate(), BookingService.DATE_FORMAT))
+        .thenComparing(Booking::getStartTime, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    /**
+     * Представление в памяти и момент его чтения
+     */
+    private static final class CachedView {
+        private final List<Booking> bookings;
+        private final long loadedAt;
+
+        private CachedView(List<Booking> bookings) {
+            this.bookings = bookings;
+            this.loadedAt = System.currentTimeMillis();
+        }
+    }
+
+    @Autowired
+    private HdfsStorageService hdfsService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    // Сколько миллисекунд копия в памяти считается актуальной
+    @Value("${booking.views.ttl-ms:30000}")
+    private long ttlMs;
+
+    // Загруженные представления: userId -> неизменяемый отсортированный список
+    private final Map<String, CachedView> views = new ConcurrentHashMap<>();
+
+    // Блокировки на пользователя, чтобы обновления одного списка не перетирали друг друга
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Предстоящие бронирования пользователя (включая отменённые, для истории в интерфейсе)
+     * @param userId идентификатор пользователя
+     * @return список, отсортированный по дате и времени начала
+     */
+    public List<Booking> getUpcoming(String userId) throws IOException {
+        CachedView cached = views.get(userId);
+        if (cached != null && isFresh(cached)) {
+            return withoutPast(cached.bookings);
+        }
+        synchronized (lockFor(userId)) {
+            return withoutPast(load(userId, false));
+        }
+    }
+
+    /**
+     * Инкрементальное обновление представления при создании или отмене бронирования
+     */
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        Booking booking = event.getBooking();
+        String userId = booking.getUserId();
+        if (userId == null) {
+            return;
+        }
+
+        try {
+            synchronized (lockFor(userId)) {
+                // Файл мог изменить другой экземпляр: обновляем его текущую версию
+                List<Booking> updated = new ArrayList<>(withoutPast(load(userId, true)));
+                updated.removeIf(b -> b.getId().equals(booking.getId()));
+                if (!isPast(booking)) {
+                    updated.add(booking);
+                }
+                updated.sort(BY_DATE_AND_TIME);
+                store(userId, updated);
+            }
+        } catch (Exception e) {
+            // Сбрасывается только копия в памяти: ошибка может быть временной,
+            // файл перечитается при следующем обращении
+            System.err.println("Ошибка обновления представления для " + userId + ": " + e.getMessage());
+            views.remove(userId);
+        }
+    }
+
+    /**
+     * Загружает представление из памяти (если копия актуальна), из файла или
+     * пересобирает его из источника. Вызывается под блокировкой пользователя
+     * @param reread true - не использовать копию в памяти
+     */
+    private List<Booking> load(String userId, boolean reread) throws IOException {
+        CachedView cached = views.get(userId);
+        if (cached != null && !reread && isFresh(cached)) {
+            return cached.bookings;
+        }
+
+        Booking[] stored = hdfsService.readJson(viewPath(userId), Booking[].class);
+        if (stored != null) {
+            List<Booking> view = List.of(stored);
+            views.put(userId, new CachedView(view));
+            return view;
+        }
+
+        List<Booking> rebuilt = rebuild(userId);
+        store(userId, rebuilt);
+        return views.get(userId).bookings;
+    }
+
+    /**
+     * Полная пересборка представления по партициям предстоящих дней;
+     * readDay учитывает и неперенесённые записи журнала
+     */
+    private List<Booking> rebuild(String userId) throws IOException {
+        System.out.println("Пересборка представления бронирований для " + userId);
+        List<Booking> result = new ArrayList<>();
+
+        for (LocalDate day : bookingService.daysFrom(LocalDate.now())) {
+            for (Booking booking : bookingService.readDay(day)) {
+                if (userId.equals(booking.getUserId())) {
+                    result.add(booking);
+                }
+            }
+        }
+
+        result.sort(BY_DATE_AND_TIME);
+        return result;
+    }
+
+    private void store(String userId, List<Booking> view) throws IOException {
+        hdfsService.saveJson(viewPath(userId), view);
+        views.put(userId, new CachedView(List.copyOf(view)));
+    }
+
+    private boolean isFresh(CachedView cached) {
+        return System.currentTimeMillis() - cached.loadedAt < ttlMs;
+    }
+
+    private List<Booking> withoutPast(List<Booking> view) {
+        // Список отсортирован, поэтому прошедшие записи всегда в начале
+        int firstUpcoming = 0;
+        while (firstUpcoming < view.size() && isPast(view.get(firstUpcoming))) {
+            firstUpcoming++;
+        }
+        return firstUpcoming == 0 ? view : view.subList(firstUpcoming, view.size());
+    }
+
+    private boolean isPast(Booking booking) {
+        try {
+            return LocalDate.parse(booking.getDate(), BookingService.DATE_FORMAT).isBefore(LocalDate.now());
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    private Object lockFor(String userId) {
+        return locks.computeIfAbsent(userId, k -> new Object());
+    }
+
+    /**
+     * Путь к файлу представления. Прочие userId (с точками, "/" и т.п.) кодируются
+     * в URL-safe Base64 с префиксом "~", которого нет среди обычных имён
+     */
+    private static String viewPath(String userId) {
+        if (PLAIN_USER_ID.matcher(userId).matches()) {
+            return VIEWS_DIR + userId + ".json";
+        }
+        return VIEWS_DIR + "~" + Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(userId.getBytes(StandardCharsets.UTF_8)) + ".json";
+    }
+}
@@ -1,18 +1,26 @@
 package com.booking.service;
 
 import com.booking.model.User;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Сервис для работы с пользователями
- * Хранит данные в HDFS в виде JSON-файлов
- * Пароли хешируются с помощью BCrypt
+ * Все пользователи хранятся в одном файле-справочнике (gzip, JSON-строки,
+ * отсортированы по имени) и держатся в памяти в отсортированной карте:
+ * поиск, постраничный вывод и поиск по префиксу не читают HDFS.
+ * Справочник перечитывается, если файл изменён другим экземпляром приложения:
+ * время изменения проверяется раз в booking.users.reload-ms, а при промахе поиска -
+ * не чаще раза в booking.users.miss-reload-ms.
+ * Пароли хешируются с помощью BCrypt; при массовом импорте - параллельно
  */
 
 @Service
@@ -20,62 +28,319 @@ public class UserService {
 
     @Autowired
     private HdfsStorageService hdfsService;
-    
+
     private static final String USERS_DIR = "/user/booking/users/";
-    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-    
+    private static final String DIRECTORY_PATH = USERS_DIR + "directory.ndjson.gz";
+    private PasswordEncoder passwordEncoder;
+
+    // Стоимость BCrypt (log2 числа раундов); существующие хеши проверяются с их собственной
+    @Value("${booking.users.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    // Потоки для хеширования паролей при импорте
+    @Value("${booking.users.hash-threads:0}")
+    private int hashThreads;
+
+    // Максимальный размер одного импорта
+    @Value("${booking.users.import-max:20000}")
+    private int importMax;
+
+    // Как часто проверять, не изменился ли файл справочника
+    @Value("${booking.users.reload-ms:60000}")
+    private long reloadMs;
+
+    // Промах поиска перечитывает справочник не чаще этого интервала
+    @Value("${booking.users.miss-reload-ms:5000}")
+    private long missReloadMs;
+
+    // Роль, которая назначается при массовом импорте (роль из файла не принимается)
+    private static final String IMPORT_ROLE = "user";
+
+    private ExecutorService hashExecutor;
+
+    // username -> пользователь; null, пока справочник не загружен
+    private volatile ConcurrentSkipListMap<String, User> directory;
+
+    // Время изменения загруженного файла и момент последней проверки
+    private volatile long loadedModified;
+    private volatile long checkedAt;
+
+    // Изменения справочника и его перезапись выполняются по одному
+    private final Object writeLock = new Object();
+
+    @PostConstruct
+    public void init() {
+        passwordEncoder = new BCryptPasswordEncoder(bcryptStrength);
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        hashExecutor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "password-hash");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashExecutor.shutdownNow();
+    }
+
     /**
      * Найти пользователя по имени
      */
     public User findByUsername(String username) throws IOException {
-        String path = USERS_DIR + username + ".json";
-        return hdfsService.readJson(path, User.class);
+        if (username == null) return null;
+        User user = directory().get(username);
+        if (user == null) {
+            // Пользователь мог быть создан на другом экземпляре приложения
+            user = directory(missReloadMs).get(username);
+        }
+        return user;
     }
-    
+
+    /**
+     * Есть ли у пользователя роль admin
+     */
+    public boolean isAdmin(String username) throws IOException {
+        User user = findByUsername(username);
+        return user != null && "admin".equals(user.getRole());
+    }
+
     /**
      * Проверить пароль
      */
     public boolean authenticate(String username, String password) throws IOException {
         User user = findByUsername(username);
         if (user == null) return false;
-        
-        // Сравниваем введённый пароль с хешем из файла
+
+        // Сравниваем введённый пароль с хешем из справочника
         return passwordEncoder.matches(password, user.getPasswordHash());
     }
-    
+
     /**
      * Создать нового пользователя (только для админа)
      */
     public boolean createUser(User user, String rawPassword) throws IOException {
-        // Проверяем, существует ли уже
-        if (findByUsername(user.getUsername()) != null) {
-            return false;
+        // Хеширование вне блокировки: оно намного дольше проверки и записи
+        String hash = passwordEncoder.encode(rawPassword);
+
+        synchronized (writeLock) {
+            ConcurrentSkipListMap<String, User> current = latest();
+            // Проверяем, существует ли уже
+            if (current.containsKey(user.getUsername())) {
+                return false;
+            }
+            user.setPasswordHash(hash);
+
+            ConcurrentSkipListMap<String, User> updated = new ConcurrentSkipListMap<>(current);
+            updated.put(user.getUsername(), user);
+            store(updated);
         }
-        
-        // Хешируем пароль
-        user.setPasswordHash(passwordEncoder.encode(rawPassword));
-        
-        // Сохраняем в HDFS
-        String path = USERS_DIR + user.getUsername() + ".json";
-        hdfsService.saveJson(path, user);
         return true;
     }
-    
+
+    /**
+     * Массовый импорт пользователей: пароли хешируются параллельно на ограниченном пуле,
+     * все новые пользователи записываются в справочник одной перезаписью.
+     * Импортированные пользователи всегда получают роль user, поле role игнорируется
+     * @param rows строки с полями username, password, name, email
+     * @return количество созданных, пропущенных и список ошибок по строкам
+     */
+    public Map<String, Object> importUsers(List<Map<String, String>> rows) throws IOException {
+        if (rows.size() > importMax) {
+            throw new IllegalArgumentException("Слишком много пользователей в одном импорте: "
+                + rows.size() + " (максимум " + importMax + ")");
+        }
+
+        long started = System.currentTimeMillis();
+        Map<String, User> existing = directory();
+        Map<String, Map<String, String>> accepted = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+        int skipped = 0;
+
+        for (int i = 0; i < rows.size(); i++) {
+            Map<String, String> row = rows.get(i);
+            String username = row.get("username");
+            String password = row.get("password");
+            if (username == null || username.isBlank() || password == null || password.isEmpty()) {
+                errors.add("Строка " + (i + 1) + ": нужны username и password");
+            } else if (existing.containsKey(username) || accepted.containsKey(username)) {
+                skipped++;
+            } else {
+                accepted.put(username, row);
+            }
+        }
+
+        // Параллельное хеширование: BCrypt - основная стоимость импорта
+        String createdAt = new Date().toString();
+        List<Future<User>> hashed = new ArrayList<>(accepted.size());
+        for (Map<String, String> row : accepted.values()) {
+            hashed.add(hashExecutor.submit(() -> new User(
+                row.get("username"),
+                passwordEncoder.encode(row.get("password")),
+                row.getOrDefault("name", row.get("username")),
+                IMPORT_ROLE,
+                row.getOrDefault("email", ""),
+                createdAt)));
+        }
+
+        List<User> users = new ArrayList<>(hashed.size());
+        try {
+            for (Future<User> future : hashed) {
+                users.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Импорт прерван", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Ошибка хеширования пароля: " + e.getCause().getMessage(), e);
+        } finally {
+            hashed.forEach(future -> future.cancel(true));
+        }
+
+        int created = 0;
+        synchronized (writeLock) {
+            ConcurrentSkipListMap<String, User> updated = new ConcurrentSkipListMap<>(latest());
+            for (User user : users) {
+                // Пользователь мог появиться, пока хешировались пароли
+                if (updated.putIfAbsent(user.getUsername(), user) == null) {
+                    created++;
+                } else {
+                    skipped++;
+                }
+            }
+            if (created > 0) {
+                store(updated);
+            }
+        }
+
+        System.out.println("Импорт пользователей: создано " + created + ", пропущено " + skipped
+            + ", ошибок " + errors.size() + " за " + (System.currentTimeMillis() - started) + " мс");
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("success", true);
+        result.put("created", created);
+        result.put("skipped", skipped);
+        result.put("errors", errors);
+        return result;
+    }
+
     /**
      * Получить всех пользователей (для админа)
      */
     public List<User> getAllUsers() throws IOException {
-        List<String> files = hdfsService.listFiles(USERS_DIR);
-        List<User> users = new ArrayList<>();
-        
-        for (String filePath : files) {
-            if (filePath.endsWith(".json")) {
-                User user = hdfsService.readJson(filePath, User.class);
-                if (user != null) {
-                    users.add(user);
+        return new ArrayList<>(directory().values());
+    }
+
+    /**
+     * Страница пользователей в порядке имени
+     * @param prefix префикс имени пользователя (может быть null)
+     * @param after имя, после которого начинается страница (null - с начала)
+     * @param limit размер страницы
+     * @return пользователи страницы
+     */
+    public List<User> listUsers(String prefix, String after, int limit) throws IOException {
+        NavigableMap<String, User> range = directory();
+        if (prefix != null && !prefix.isEmpty()) {
+            // Все имена с префиксом лежат в [prefix, prefix + Character.MAX_VALUE)
+            range = range.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        }
+        if (after != null && !after.isEmpty()) {
+            range = range.tailMap(after, false);
+        }
+
+        List<User> page = new ArrayList<>(Math.min(limit, 1000));
+        for (User user : range.values()) {
+            if (page.size() >= limit) break;
+            page.add(user);
+        }
+        return page;
+    }
+
+    private ConcurrentSkipListMap<String, User> directory() throws IOException {
+        return directory(reloadMs);
+    }
+
+    /**
+     * Справочник в памяти. Если с прошлой проверки прошло больше maxAgeMs,
+     * сверяется время изменения файла и при расхождении файл перечитывается.
+     * При ошибке HDFS остаётся прежняя копия
+     */
+    private ConcurrentSkipListMap<String, User> directory(long maxAgeMs) throws IOException {
+        ConcurrentSkipListMap<String, User> loaded = directory;
+        if (loaded != null && System.currentTimeMillis() - checkedAt < maxAgeMs) {
+            return loaded;
+        }
+        synchronized (writeLock) {
+            if (directory != null && System.currentTimeMillis() - checkedAt < maxAgeMs) {
+                return directory;
+            }
+            try {
+                long modified = hdfsService.modificationTime(DIRECTORY_PATH);
+                checkedAt = System.currentTimeMillis();
+                if (directory == null || modified != loadedModified) {
+                    directory = load();
+                    loadedModified = modified;
+                }
+            } catch (IOException e) {
+                if (directory == null) {
+                    throw e;
                 }
+                checkedAt = System.currentTimeMillis();
+                System.err.println("Справочник пользователей не перечитан: " + e.getMessage());
             }
+            return directory;
         }
-        return users;
     }
-}
\ No newline at end of file
+
+    /**
+     * Справочник перед изменением (вызывается под writeLock): время изменения файла
+     * сверяется всегда, и файл перечитывается, если его перезаписал другой экземпляр.
+     * При ошибке HDFS изменение не выполняется, чтобы не перетереть файл устаревшей копией
+     */
+    private ConcurrentSkipListMap<String, User> latest() throws IOException {
+        long modified = hdfsService.modificationTime(DIRECTORY_PATH);
+        if (directory == null || modified != loadedModified) {
+            directory = load();
+            loadedModified = modified;
+        }
+        checkedAt = System.currentTimeMillis();
+        return directory;
+    }
+
+    /**
+     * Читает справочник из файла, а если файла ещё нет - собирает его
+     * из отдельных файлов USERS_DIR (прежний формат)
+     */
+    private ConcurrentSkipListMap<String, User> load() throws IOException {
+        ConcurrentSkipListMap<String, User> loaded = new ConcurrentSkipListMap<>();
+        // Чтение подхватывает справочник, оставшийся во временном файле после сбоя
+        for (User user : hdfsService.readJsonLinesGzip(DIRECTORY_PATH, User.class)) {
+            loaded.put(user.getUsername(), user);
+        }
+        if (loaded.isEmpty() && !hdfsService.exists(DIRECTORY_PATH)) {
+            for (String filePath : hdfsService.listFiles(USERS_DIR)) {
+                if (filePath.endsWith(".json")) {
+                    User user = hdfsService.readJson(filePath, User.class);
+                    if (user != null) {
+                        loaded.put(user.getUsername(), user);
+                    }
+                }
+            }
+            if (!loaded.isEmpty()) {
+                hdfsService.saveJsonLinesGzip(DIRECTORY_PATH, new ArrayList<>(loaded.values()));
+                System.out.println("Пользователи перенесены в справочник: " + loaded.size());
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Атомарно перезаписывает файл справочника и публикует новую карту
+     */
+    private void store(ConcurrentSkipListMap<String, User> updated) throws IOException {
+        hdfsService.saveJsonLinesGzip(DIRECTORY_PATH, new ArrayList<>(updated.values()));
+        directory = updated;
+        loadedModified = hdfsService.modificationTime(DIRECTORY_PATH);
+        checkedAt = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,119 @@
+package com.booking.util;
+
+import com.booking.util.IoStats.Counter;
+import org.apache.hadoop.fs.*;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.util.Progressable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+
+/**
+ * AccountingFileSystem - обёртка над FileSystem, считающая обращения к кластеру
+ * Каждый вызов учитывается в IoContext текущего запроса. Рекурсивный listFiles
+ * обходит дерево через собственный listLocatedStatus (FilterFileSystem передал бы
+ * обход внутренней файловой системе мимо учёта), поэтому он считается как один вызов
+ * плюс listStatus на каждую обойдённую папку
+ */
+public class AccountingFileSystem extends FilterFileSystem {
+
+    public AccountingFileSystem(FileSystem fs) {
+        super(fs);
+    }
+
+    @Override
+    public boolean exists(Path f) throws IOException {
+        IoContext.record(Counter.EXISTS, 1);
+        return fs.exists(f);
+    }
+
+    @Override
+    public FileStatus getFileStatus(Path f) throws IOException {
+        IoContext.record(Counter.GET_FILE_STATUS, 1);
+        return super.getFileStatus(f);
+    }
+
+    @Override
+    public FileStatus[] listStatus(Path f) throws IOException {
+        IoContext.record(Counter.LIST_STATUS, 1);
+        return super.listStatus(f);
+    }
+
+    @Override
+    public RemoteIterator<LocatedFileStatus> listLocatedStatus(Path f) throws IOException {
+        IoContext.record(Counter.LIST_STATUS, 1);
+        return super.listLocatedStatus(f);
+    }
+
+    @Override
+    public RemoteIterator<LocatedFileStatus> listFiles(Path f, boolean recursive) throws IOException {
+        IoContext.record(Counter.LIST_FILES, 1);
+        Deque<RemoteIterator<LocatedFileStatus>> pending = new ArrayDeque<>();
+        pending.push(listLocatedStatus(f));
+
+        // Обход в глубину, папки раскрываются по мере чтения
+        return new RemoteIterator<LocatedFileStatus>() {
+            private LocatedFileStatus next;
+
+            @Override
+            public boolean hasNext() throws IOException {
+                while (next == null && !pending.isEmpty()) {
+                    RemoteIterator<LocatedFileStatus> current = pending.peek();
+                    if (!current.hasNext()) {
+                        pending.pop();
+                        continue;
+                    }
+                    LocatedFileStatus status = current.next();
+                    if (status.isFile()) {
+                        next = status;
+                    } else if (recursive) {
+                        pending.push(listLocatedStatus(status.getPath()));
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public LocatedFileStatus next() throws IOException {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                LocatedFileStatus result = next;
+                next = null;
+                return result;
+            }
+        };
+    }
+
+    @Override
+    public boolean mkdirs(Path f, FsPermission permission) throws IOException {
+        IoContext.record(Counter.MKDIRS, 1);
+        return super.mkdirs(f, permission);
+    }
+
+    @Override
+    public boolean delete(Path f, boolean recursive) throws IOException {
+        IoContext.record(Counter.DELETE, 1);
+        return super.delete(f, recursive);
+    }
+
+    @Override
+    public boolean rename(Path src, Path dst) throws IOException {
+        IoContext.record(Counter.RENAME, 1);
+        return super.rename(src, dst);
+    }
+
+    @Override
+    public FSDataInputStream open(Path f, int bufferSize) throws IOException {
+        IoContext.record(Counter.OPEN, 1);
+        return super.open(f, bufferSize);
+    }
+
+    @Override
+    public FSDataOutputStream create(Path f, FsPermission permission, boolean overwrite, int bufferSize,
+                                     short replication, long blockSize, Progressable progress) throws IOException {
+        IoContext.record(Counter.CREATE, 1);
+        return super.create(f, permission, overwrite, bufferSize, replication, blockSize, progress);
+    }
+}
@@ -0,0 +1,67 @@
+package com.booking.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CircuitBreaker - автомат защиты для обращений к внешней системе
+ * После N подряд неудачных вызовов переходит в состояние OPEN и сразу отклоняет
+ * запросы в течение заданного времени. Затем пропускает один пробный вызов
+ * (HALF_OPEN): при успехе закрывается, при неудаче снова открывается
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong(0);     // 0 - автомат закрыт
+    private final AtomicLong probeStartedAt = new AtomicLong(0);
+
+    /**
+     * @param failureThreshold число подряд идущих ошибок для размыкания
+     * @param openMillis сколько миллисекунд отклонять запросы после размыкания
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Можно ли выполнить вызов сейчас
+     */
+    public boolean allowRequest() {
+        long opened = openedAt.get();
+        if (opened == 0) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (now - opened < openMillis) {
+            return false;
+        }
+        // Время ожидания вышло: пропускаем ровно один пробный вызов за интервал
+        long probe = probeStartedAt.get();
+        return now - probe >= openMillis && probeStartedAt.compareAndSet(probe, now);
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        openedAt.set(0);
+    }
+
+    public void onFailure() {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAt.set(System.currentTimeMillis());
+        }
+    }
+
+    public State getState() {
+        long opened = openedAt.get();
+        if (opened == 0) {
+            return State.CLOSED;
+        }
+        return System.currentTimeMillis() - opened < openMillis ? State.OPEN : State.HALF_OPEN;
+    }
+}
@@ -0,0 +1,158 @@
+package com.booking.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HashedTimingWheel - таймер на основе хешированного колеса
+ * Вместо отдельного таймера на каждую задачу все задачи раскладываются по ячейкам
+ * колеса (ячейка = момент срабатывания по модулю размера колеса). Один поток раз
+ * в тик обходит только текущую ячейку, поэтому постановка и отмена задачи стоят O(1),
+ * а десятки тысяч отложенных задач обслуживаются одним потоком.
+ * Задачи с задержкой больше оборота колеса ждут нужное число оборотов (rounds)
+ */
+public class HashedTimingWheel {
+
+    /**
+     * Запланированная задача; cancel() снимает её с выполнения
+     */
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadlineNanos;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<List<Timeout>> wheel;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Executor executor;
+    private final Thread worker;
+    private final long startNanos;
+    private volatile boolean running = true;
+
+    /**
+     * @param name имя рабочего потока
+     * @param tickMillis длительность тика (точность срабатывания)
+     * @param wheelSize число ячеек колеса (округляется вверх до степени двойки)
+     * @param executor где выполнять сработавшие задачи; null - прямо в потоке колеса
+     */
+    public HashedTimingWheel(String name, long tickMillis, int wheelSize, Executor executor) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.mask = size - 1;
+        this.wheel = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            wheel.add(new ArrayList<>());
+        }
+        this.executor = executor;
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Планирует задачу
+     * @param task задача
+     * @param delay задержка
+     * @param unit единицы задержки
+     * @return дескриптор для отмены
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout timeout = new Timeout(task, System.nanoTime() + unit.toNanos(Math.max(0, delay)));
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Останавливает колесо; невыполненные задачи отбрасываются
+     */
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long sleepNanos = startNanos + (tick + 1) * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return;
+                    }
+                }
+            }
+
+            transferPending(tick);
+            expire(wheel.get((int) (tick & mask)));
+            tick++;
+        }
+    }
+
+    /**
+     * Переносит новые задачи из очереди в ячейки колеса (только поток колеса)
+     */
+    private void transferPending(long currentTick) {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            long targetTick = (timeout.deadlineNanos - startNanos + tickNanos - 1) / tickNanos;
+            // Просроченные задачи срабатывают в текущем тике
+            long tick = Math.max(targetTick, currentTick);
+            timeout.remainingRounds = (tick - currentTick) / wheel.size();
+            wheel.get((int) (tick & mask)).add(timeout);
+        }
+    }
+
+    private void expire(List<Timeout> bucket) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.cancelled) {
+                iterator.remove();
+            } else if (timeout.remainingRounds <= 0) {
+                iterator.remove();
+                fire(timeout);
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    private void fire(Timeout timeout) {
+        try {
+            if (executor != null) {
+                executor.execute(timeout.task);
+            } else {
+                timeout.task.run();
+            }
+        } catch (Throwable e) {
+            System.err.println("Ошибка выполнения задачи таймера: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.booking.util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * IoBudget - допустимое число обращений к хранилищу для эндпоинтов
+ * Задаётся строкой вида "GET /api/bookings/{id}=4, POST /api/bookings=8"
+ * (метод и шаблон пути, как их сопоставил Spring, и предел RPC).
+ * Используется фильтром учёта и в проверках: assertWithin бросает AssertionError,
+ * если запрос превысил бюджет, поэтому рост числа обращений ловится сразу
+ */
+public class IoBudget {
+
+    private final Map<String, Long> limits;
+
+    private IoBudget(Map<String, Long> limits) {
+        this.limits = Collections.unmodifiableMap(limits);
+    }
+
+    /**
+     * Разбор бюджета; пустая строка - бюджет без ограничений
+     * @throws IllegalArgumentException если элемент записан не в виде "МЕТОД /путь=число"
+     */
+    public static IoBudget parse(String spec) {
+        Map<String, Long> limits = new LinkedHashMap<>();
+        if (spec != null) {
+            for (String item : spec.split(",")) {
+                if (item.isBlank()) {
+                    continue;
+                }
+                int eq = item.lastIndexOf('=');
+                if (eq < 0) {
+                    throw new IllegalArgumentException("Элемент бюджета без предела: " + item.trim());
+                }
+                String endpoint = item.substring(0, eq).trim().replaceAll("\\s+", " ");
+                if (!endpoint.contains(" /")) {
+                    throw new IllegalArgumentException("Ожидается \"МЕТОД /путь\": " + endpoint);
+                }
+                limits.put(endpoint, Long.parseLong(item.substring(eq + 1).trim()));
+            }
+        }
+        return new IoBudget(limits);
+    }
+
+    /**
+     * Ключ эндпоинта в бюджете
+     */
+    public static String key(String method, String pattern) {
+        return method + " " + pattern;
+    }
+
+    /**
+     * Предел RPC эндпоинта или null, если он не ограничен
+     */
+    public Long limitFor(String endpoint) {
+        return limits.get(endpoint);
+    }
+
+    public boolean isEmpty() {
+        return limits.isEmpty();
+    }
+
+    /**
+     * Превышен ли бюджет эндпоинта
+     */
+    public boolean isExceeded(String endpoint, IoStats stats) {
+        Long limit = limits.get(endpoint);
+        return limit != null && stats.rpcCount() > limit;
+    }
+
+    /**
+     * Проверка для тестов: запрос к эндпоинту уложился в бюджет
+     * @throws AssertionError с разбивкой обращений, если бюджет превышен
+     */
+    public void assertWithin(String endpoint, IoStats stats) {
+        if (isExceeded(endpoint, stats)) {
+            throw new AssertionError(endpoint + ": " + stats.rpcCount() + " обращений к хранилищу при бюджете "
+                + limits.get(endpoint) + " (" + stats.toHeader() + ")");
+        }
+    }
+
+    public Map<String, Long> toMap() {
+        return limits;
+    }
+}
@@ -0,0 +1,92 @@
+package com.booking.util;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * IoContext - привязка счётчиков IoStats к текущему запросу
+ * Фильтр открывает контекст в потоке запроса; код, передающий работу в пулы
+ * (операции HDFS с дедлайном, параллельные отчёты), переносит его через wrap/supply,
+ * чтобы обращения из рабочих потоков попали в счётчики запроса
+ */
+public final class IoContext {
+
+    private static final ThreadLocal<IoStats> CURRENT = new ThreadLocal<>();
+
+    private IoContext() {
+    }
+
+    /**
+     * Открывает контекст в текущем потоке
+     * @return счётчики запроса
+     */
+    public static IoStats begin() {
+        IoStats stats = new IoStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Счётчики текущего запроса или null вне запроса
+     */
+    public static IoStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Учитывает обращение, если поток выполняет работу запроса
+     */
+    public static void record(IoStats.Counter counter, long delta) {
+        IoStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.add(counter, delta);
+        }
+    }
+
+    /**
+     * Задача, которая в любом потоке пишет в счётчики вызывающего запроса
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        IoStats stats = CURRENT.get();
+        if (stats == null) {
+            return task;
+        }
+        return () -> {
+            IoStats previous = CURRENT.get();
+            CURRENT.set(stats);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * Выполняет функцию со счётчиками указанного запроса (для параллельных потоков)
+     */
+    public static <T> T supply(IoStats stats, Supplier<T> supplier) {
+        if (stats == null) {
+            return supplier.get();
+        }
+        IoStats previous = CURRENT.get();
+        CURRENT.set(stats);
+        try {
+            return supplier.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    private static void restore(IoStats previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.booking.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * IoStats - счётчики обращений к хранилищу в рамках одного запроса
+ * Обновляются из потоков ввода-вывода, поэтому счётчики атомарные.
+ * RPC - все обращения к NameNode/DataNode (всё, кроме байтов)
+ */
+public class IoStats {
+
+    public enum Counter {
+        EXISTS("exists"),
+        GET_FILE_STATUS("getFileStatus"),
+        OPEN("open"),
+        CREATE("create"),
+        LIST_FILES("listFiles"),
+        LIST_STATUS("listStatus"),
+        MKDIRS("mkdirs"),
+        DELETE("delete"),
+        RENAME("rename"),
+        BYTES_READ("bytesRead"),
+        BYTES_WRITTEN("bytesWritten");
+
+        private final String key;
+
+        Counter(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        boolean isRpc() {
+            return this != BYTES_READ && this != BYTES_WRITTEN;
+        }
+    }
+
+    private final AtomicLongArray values = new AtomicLongArray(Counter.values().length);
+
+    public void add(Counter counter, long delta) {
+        values.addAndGet(counter.ordinal(), delta);
+    }
+
+    public long get(Counter counter) {
+        return values.get(counter.ordinal());
+    }
+
+    /**
+     * Общее число обращений к кластеру
+     */
+    public long rpcCount() {
+        long total = 0;
+        for (Counter counter : Counter.values()) {
+            if (counter.isRpc()) {
+                total += get(counter);
+            }
+        }
+        return total;
+    }
+
+    public Map<String, Long> toMap() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("rpc", rpcCount());
+        for (Counter counter : Counter.values()) {
+            result.put(counter.getKey(), get(counter));
+        }
+        return result;
+    }
+
+    /**
+     * Краткая запись для заголовка ответа: rpc=12;exists=3;open=5;... (нулевые счётчики опускаются)
+     */
+    public String toHeader() {
+        StringBuilder header = new StringBuilder("rpc=").append(rpcCount());
+        for (Counter counter : Counter.values()) {
+            long value = get(counter);
+            if (value != 0) {
+                header.append(';').append(counter.getKey()).append('=').append(value);
+            }
+        }
+        return header.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package com.booking.util;
+
+import org.apache.hadoop.fs.*;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.util.Progressable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * LatencyInjectingFileSystem - обёртка над FileSystem, добавляющая задержки
+ * Имитирует сетевые задержки реального кластера поверх локальной файловой системы:
+ * каждая операция с метаданными платит задержку NameNode, открытие и создание
+ * файла дополнительно платят задержку DataNode. С заданной вероятностью задержка
+ * DataNode заменяется "хвостовой" (медленный узел), чтобы нагрузочные тесты
+ * показывали поведение p99/p999
+ */
+public class LatencyInjectingFileSystem extends FilterFileSystem {
+
+    private final long nameNodeMillis;
+    private final long dataNodeMillis;
+    private final double tailProbability;
+    private final long tailMillis;
+
+    /**
+     * @param fs исходная файловая система
+     * @param nameNodeMillis задержка операций с метаданными
+     * @param dataNodeMillis задержка первого байта при чтении/записи
+     * @param tailProbability вероятность медленного ответа DataNode (0..1)
+     * @param tailMillis задержка медленного ответа
+     */
+    public LatencyInjectingFileSystem(FileSystem fs, long nameNodeMillis, long dataNodeMillis,
+                                      double tailProbability, long tailMillis) {
+        super(fs);
+        this.nameNodeMillis = nameNodeMillis;
+        this.dataNodeMillis = dataNodeMillis;
+        this.tailProbability = tailProbability;
+        this.tailMillis = tailMillis;
+    }
+
+    @Override
+    public FileStatus getFileStatus(Path f) throws IOException {
+        nameNode();
+        return super.getFileStatus(f);
+    }
+
+    @Override
+    public FileStatus[] listStatus(Path f) throws IOException {
+        nameNode();
+        return super.listStatus(f);
+    }
+
+    @Override
+    public RemoteIterator<LocatedFileStatus> listLocatedStatus(Path f) throws IOException {
+        nameNode();
+        return super.listLocatedStatus(f);
+    }
+
+    @Override
+    public boolean mkdirs(Path f, FsPermission permission) throws IOException {
+        nameNode();
+        return super.mkdirs(f, permission);
+    }
+
+    @Override
+    public boolean delete(Path f, boolean recursive) throws IOException {
+        nameNode();
+        return super.delete(f, recursive);
+    }
+
+    @Override
+    public boolean rename(Path src, Path dst) throws IOException {
+        nameNode();
+        return super.rename(src, dst);
+    }
+
+    @Override
+    public FSDataInputStream open(Path f, int bufferSize) throws IOException {
+        nameNode();
+        dataNode();
+        return super.open(f, bufferSize);
+    }
+
+    @Override
+    public FSDataOutputStream create(Path f, FsPermission permission, boolean overwrite, int bufferSize,
+                                     short replication, long blockSize, Progressable progress) throws IOException {
+        nameNode();
+        dataNode();
+        return super.create(f, permission, overwrite, bufferSize, replication, blockSize, progress);
+    }
+
+    private void nameNode() throws IOException {
+        sleep(nameNodeMillis);
+    }
+
+    private void dataNode() throws IOException {
+        boolean tail = tailProbability > 0 && ThreadLocalRandom.current().nextDouble() < tailProbability;
+        sleep(tail ? tailMillis : dataNodeMillis);
+    }
+
+    private static void sleep(long baseMillis) throws IOException {
+        if (baseMillis <= 0) {
+            return;
+        }
+        // Разброс +-25%, чтобы задержки не были одинаковыми
+        long jitter = baseMillis / 4;
+        long millis = baseMillis + (jitter > 0 ? ThreadLocalRandom.current().nextLong(-jitter, jitter + 1) : 0);
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Прервано ожидание имитированной задержки");
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.booking.util;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * SpatialGrid - равномерная сетка для поиска ближайших объектов на плоскости
+ * Объекты раскладываются по квадратным ячейкам размера cellSize; поиск
+ * обходит кольца ячеек вокруг точки и останавливается, как только следующие
+ * кольца заведомо дальше уже найденных k объектов. Сетка неизменяемая:
+ * каталог мест строится один раз, а занятость передаётся фильтром при поиске
+ */
+public class SpatialGrid<T> {
+
+    private final int cellSize;
+    private final ToIntFunction<T> xOf;
+    private final ToIntFunction<T> yOf;
+    private final Map<Long, List<T>> cells = new HashMap<>();
+    private final int size;
+    private int minCx = Integer.MAX_VALUE;
+    private int maxCx = Integer.MIN_VALUE;
+    private int minCy = Integer.MAX_VALUE;
+    private int maxCy = Integer.MIN_VALUE;
+
+    public SpatialGrid(Collection<T> items, int cellSize, ToIntFunction<T> xOf, ToIntFunction<T> yOf) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Размер ячейки должен быть положительным: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.xOf = xOf;
+        this.yOf = yOf;
+        for (T item : items) {
+            int cx = Math.floorDiv(xOf.applyAsInt(item), cellSize);
+            int cy = Math.floorDiv(yOf.applyAsInt(item), cellSize);
+            cells.computeIfAbsent(cellKey(cx, cy), key -> new ArrayList<>()).add(item);
+            minCx = Math.min(minCx, cx);
+            maxCx = Math.max(maxCx, cx);
+            minCy = Math.min(minCy, cy);
+            maxCy = Math.max(maxCy, cy);
+        }
+        this.size = items.size();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * k ближайших к точке объектов, прошедших фильтр, в порядке расстояния
+     * @param x координата X точки
+     * @param y координата Y точки
+     * @param k сколько объектов нужно
+     * @param filter какие объекты подходят (например, свободные места)
+     * @return не больше k объектов
+     */
+    public List<T> nearest(int x, int y, int k, Predicate<T> filter) {
+        if (k <= 0 || size == 0) {
+            return List.of();
+        }
+        int cx = Math.floorDiv(x, cellSize);
+        int cy = Math.floorDiv(y, cellSize);
+        int maxRing = Math.max(Math.max(cx - minCx, maxCx - cx), Math.max(cy - minCy, maxCy - cy));
+
+        // Максимальная куча по расстоянию: в вершине самый дальний из найденных
+        PriorityQueue<Map.Entry<Long, T>> found = new PriorityQueue<>(k + 1,
+            Comparator.comparingLong((Map.Entry<Long, T> e) -> e.getKey()).reversed());
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int ix = cx - ring; ix <= cx + ring; ix++) {
+                for (int iy = cy - ring; iy <= cy + ring; iy++) {
+                    // Только ячейки на границе кольца
+                    if (Math.abs(ix - cx) != ring && Math.abs(iy - cy) != ring) {
+                        continue;
+                    }
+                    List<T> cell = cells.get(cellKey(ix, iy));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (T item : cell) {
+                        if (!filter.test(item)) {
+                            continue;
+                        }
+                        long dx = xOf.applyAsInt(item) - x;
+                        long dy = yOf.applyAsInt(item) - y;
+                        found.add(new AbstractMap.SimpleImmutableEntry<>(dx * dx + dy * dy, item));
+                        if (found.size() > k) {
+                            found.poll();
+                        }
+                    }
+                }
+            }
+            // Объекты следующих колец не ближе ring * cellSize от точки
+            long reach = (long) ring * cellSize;
+            if (found.size() == k && found.peek().getKey() <= reach * reach) {
+                break;
+            }
+        }
+
+        List<T> result = new ArrayList<>(found.size());
+        while (!found.isEmpty()) {
+            result.add(found.poll().getValue());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+}
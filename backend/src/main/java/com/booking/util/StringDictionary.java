@@ -0,0 +1,72 @@
+package com.booking.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * StringDictionary - словарное кодирование повторяющихся строк
+ * Каждой различной строке присваивается код int (0, 1, 2...), сама строка
+ * хранится один раз. Используется в компактных индексах, где userId,
+ * workplaceId и подобные значения повторяются в миллионах записей
+ */
+public class StringDictionary {
+
+    public static final int NONE = -1;   // Код для null
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[64];
+    private int size;
+
+    /**
+     * Код строки; новая строка добавляется в словарь
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size] = value;
+            codes.put(value, size);
+            return size++;
+        }
+    }
+
+    /**
+     * Код строки без добавления в словарь
+     * @return код или NONE, если строки нет
+     */
+    public int find(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : NONE;
+    }
+
+    public String decode(int code) {
+        return code == NONE ? null : values[code];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Все строки в порядке кодов (для сохранения; encode в этом порядке восстанавливает коды)
+     */
+    public synchronized String[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
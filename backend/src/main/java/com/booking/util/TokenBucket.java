@@ -0,0 +1,59 @@
+package com.booking.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TokenBucket - неблокирующий ограничитель частоты запросов
+ * Реализован по алгоритму GCRA: всё состояние корзины - одно число
+ * (теоретическое время следующего запроса), которое меняется через CAS,
+ * поэтому корзину можно вызывать из любого числа потоков без блокировок
+ */
+public class TokenBucket {
+
+    private final long nanosPerToken;   // Интервал пополнения одного токена
+    private final long burstNanos;      // Допустимый запас (ёмкость корзины во времени)
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param tokensPerSecond скорость пополнения
+     * @param capacity максимальное количество токенов (размер всплеска)
+     */
+    public TokenBucket(double tokensPerSecond, int capacity) {
+        this.nanosPerToken = (long) (1_000_000_000L / tokensPerSecond);
+        this.burstNanos = nanosPerToken * Math.max(1, capacity);
+    }
+
+    /**
+     * Пытается взять один токен
+     * @return 0 если токен получен, иначе время ожидания следующего токена в наносекундах
+     */
+    public long tryAcquire() {
+        long now = System.nanoTime();
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + nanosPerToken;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Возвращает токен, взятый запросом, который затем был отклонён по другой причине
+     */
+    public void refund() {
+        theoreticalArrival.addAndGet(-nanosPerToken);
+    }
+
+    /**
+     * Корзина полностью пополнена и её можно удалить без потери состояния
+     */
+    public boolean isIdle() {
+        long current = theoreticalArrival.get();
+        return current == Long.MIN_VALUE || current - System.nanoTime() <= 0;
+    }
+}
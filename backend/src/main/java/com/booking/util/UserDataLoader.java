@@ -4,16 +4,20 @@ import com.booking.model.User;
 import com.booking.service.UserService;
 import com.booking.service.HdfsStorageService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
-import org.apache.hadoop.fs.Path;
 
 /**
  * UserDataLoader - загрузчик тестовых пользователей при первом запуске
  * Реализует CommandLineRunner, выполняется после старта приложения
- * Создаёт папку /user/booking/users/ в HDFS и добавляет трёх тестовых пользователей
+ * Создаёт папку /user/booking/users/ в HDFS и добавляет трёх тестовых пользователей.
+ * Отключается через booking.seed.enabled=false; при booking.seed.async=true
+ * выполняется в фоне и не задерживает готовность приложения
  */
 @Component
+@ConditionalOnProperty(name = "booking.seed.enabled", havingValue = "true", matchIfMissing = true)
 public class UserDataLoader implements CommandLineRunner {
 
     @Autowired
@@ -21,9 +25,28 @@ public class UserDataLoader implements CommandLineRunner {
     
     @Autowired
     private HdfsStorageService hdfsStorageService;
+    
+    @Value("${booking.seed.async:false}")
+    private boolean async;
 
     @Override
     public void run(String... args) throws Exception {
+        if (async) {
+            Thread seeder = new Thread(() -> {
+                try {
+                    seed();
+                } catch (Exception e) {
+                    System.err.println("Ошибка загрузки пользователей: " + e.getMessage());
+                }
+            }, "user-seed");
+            seeder.setDaemon(true);
+            seeder.start();
+        } else {
+            seed();
+        }
+    }
+    
+    private void seed() throws Exception {
         System.out.println("Загрузка пользователей...");
         
         // Создание папки для пользователей в HDFS
@@ -42,11 +65,7 @@ public class UserDataLoader implements CommandLineRunner {
      */
     private void createUsersDirectoryIfNotExists(String usersDir) throws Exception {
         if (!hdfsStorageService.exists(usersDir)) {
-            Path path = new Path(usersDir);
-            org.apache.hadoop.fs.FileSystem fs = org.apache.hadoop.fs.FileSystem.get(
-                new org.apache.hadoop.conf.Configuration()
-            );
-            fs.mkdirs(path);
+            hdfsStorageService.mkdirs(usersDir);
             System.out.println("Создана папка для пользователей: " + usersDir);
         }
     }
@@ -0,0 +1,66 @@
+package com.booking.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Корзины фильтра ограничения частоты: пользователи за одним адресом
+ * расходуют каждый свой лимит, а адрес в целом ограничен отдельно
+ */
+class RateLimitFilterTest {
+
+    private static final String OFFICE_ADDRESS = "10.0.0.1";
+
+    @Test
+    void usersBehindOneAddressHaveSeparateBuckets() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(1000, 1000, 0.001, 3, 0.001, 100, 8);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, status(filter, withUserId("user")));
+        }
+        assertEquals(429, status(filter, withUserId("user")));
+
+        // Другой пользователь с того же адреса не затронут
+        assertEquals(200, status(filter, withUserId("employee1")));
+
+        // Имя из Authorization: Basic - тот же пользователь, что и userId
+        MockHttpServletRequest basic = request();
+        basic.addHeader("Authorization", "Basic "
+            + Base64.getEncoder().encodeToString("user:user123".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(429, status(filter, basic));
+    }
+
+    @Test
+    void addressLimitBoundsChangingUserIds() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(1000, 1000, 0.001, 3, 0.001, 5, 8);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, status(filter, withUserId("user" + i)));
+        }
+        assertEquals(429, status(filter, withUserId("user-next")));
+    }
+
+    private static MockHttpServletRequest withUserId(String userId) {
+        MockHttpServletRequest request = request();
+        request.setParameter("userId", userId);
+        return request;
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/workplaces");
+        request.setRemoteAddr(OFFICE_ADDRESS);
+        return request;
+    }
+
+    private static int status(RateLimitFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,31 @@
+package com.booking.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Бюджет обращений к хранилищу для входа в систему
+ */
+class AuthControllerIoBudgetTest extends IoBudgetTestSupport {
+
+    @Test
+    void loginStaysWithinBudget() throws Exception {
+        String body = performWithinBudget("POST /api/auth/login", post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"user\",\"password\":\"user123\"}"))
+            .getResponse().getContentAsString();
+        assertTrue(body.contains("\"success\":true"), body);
+    }
+
+    @Test
+    void failedLoginStaysWithinBudget() throws Exception {
+        String body = performWithinBudget("POST /api/auth/login", post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"nobody\",\"password\":\"wrong\"}"))
+            .getResponse().getContentAsString();
+        assertTrue(body.contains("\"success\":false"), body);
+    }
+}
@@ -0,0 +1,154 @@
+package com.booking.controller;
+
+import com.booking.model.Booking;
+import com.booking.service.BookingService;
+import com.booking.service.HdfsStorageService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Бюджет обращений к хранилищу для эндпоинтов бронирований
+ * Каждый тест бронирует свой день и свои места: проверка под блокировкой слота
+ * дочитывает недавно изменённые файлы дня, и чужие записи того же дня исказили бы счёт.
+ * Бюджеты описывают установившийся режим, поэтому представления пользователей
+ * строятся заранее: первое построение обходит все будущие дни и в бюджет не входит
+ */
+class BookingControllerIoBudgetTest extends IoBudgetTestSupport {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private HdfsStorageService hdfsService;
+
+    @BeforeEach
+    void warmUpViews() throws Exception {
+        for (String userId : new String[] {"user", "employee1", "admin"}) {
+            mockMvc.perform(get("/api/bookings").param("userId", userId));
+        }
+    }
+
+    @Test
+    void createAndCancelStayWithinBudget() throws Exception {
+        String id = create("moscow-wp-1", day(10), "09:00", "10:00");
+
+        JsonNode cancelled = json(performWithinBudget("DELETE /api/bookings/{id}", delete("/api/bookings/" + id))
+            .getResponse().getContentAsString());
+        assertTrue(cancelled.path("success").asBoolean(), cancelled.toString());
+    }
+
+    @Test
+    void readsStayWithinBudget() throws Exception {
+        create("moscow-wp-2", day(11), "09:00", "10:00");
+
+        performWithinBudget("GET /api/bookings", get("/api/bookings").param("userId", "user"));
+        performWithinBudget("GET /api/bookings/by-place", get("/api/bookings/by-place")
+            .param("workplaceId", "moscow-wp-2"));
+        performWithinBudget("GET /api/workplaces", get("/api/workplaces").param("branch", "moscow"));
+
+        JsonNode availability = json(performWithinBudget("GET /api/bookings/check-availability",
+                get("/api/bookings/check-availability")
+                    .param("workplaceId", "moscow-wp-2")
+                    .param("date", day(11))
+                    .param("startTime", "09:30")
+                    .param("endTime", "10:30"))
+            .getResponse().getContentAsString());
+        assertTrue(availability.toString().contains("false"), availability.toString());
+    }
+
+    @Test
+    void holdAndReleaseStayWithinBudget() throws Exception {
+        JsonNode hold = json(performWithinBudget("POST /api/bookings/hold", post("/api/bookings/hold")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\":\"user\",\"workplaceId\":\"moscow-wp-3\",\"date\":\"" + day(12)
+                    + "\",\"startTime\":\"09:00\",\"endTime\":\"10:00\"}"))
+            .getResponse().getContentAsString());
+        assertTrue(hold.path("success").asBoolean(), hold.toString());
+
+        performWithinBudget("DELETE /api/bookings/hold/{holdId}",
+            delete("/api/bookings/hold/" + hold.path("holdId").asText()));
+    }
+
+    @Test
+    void checkInStaysWithinBudget() throws Exception {
+        // Отметка возможна только для бронирования сегодняшнего дня, которое ещё не закончилось
+        String id = create("moscow-wp-4", LocalDate.now().format(BookingService.DATE_FORMAT), "00:00", "23:59");
+
+        JsonNode checkedIn = json(performWithinBudget("POST /api/bookings/{id}/check-in",
+                post("/api/bookings/" + id + "/check-in"))
+            .getResponse().getContentAsString());
+        assertTrue(checkedIn.path("success").asBoolean(), checkedIn.toString());
+    }
+
+    @Test
+    void checkInFindsBookingCreatedOnAnotherInstance() throws Exception {
+        // Файл записан в обход этого экземпляра: ни расписание, ни индекс о нём не знают
+        Booking booking = new Booking("remote-1", "user", "moscow-wp-5", "moscow-wp-5", "moscow",
+            LocalDate.now().format(BookingService.DATE_FORMAT), "00:00", "23:59", "test", "confirmed");
+        hdfsService.saveJson(BookingService.bookingPath(booking), booking);
+
+        JsonNode checkedIn = json(performWithinBudget("POST /api/bookings/{id}/check-in",
+                post("/api/bookings/remote-1/check-in"))
+            .getResponse().getContentAsString());
+        assertTrue(checkedIn.path("success").asBoolean(), checkedIn.toString());
+    }
+
+    @Test
+    void teamBookingStaysWithinBudget() throws Exception {
+        JsonNode team = json(performWithinBudget("POST /api/bookings/team", post("/api/bookings/team")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\":\"user\",\"members\":[\"user\",\"employee1\",\"admin\"],"
+                    + "\"branch\":\"moscow\",\"date\":\"" + day(13)
+                    + "\",\"startTime\":\"09:00\",\"endTime\":\"10:00\",\"purpose\":\"team\"}"))
+            .getResponse().getContentAsString());
+        assertTrue(team.path("success").asBoolean(), team.toString());
+    }
+
+    @Test
+    void teamBookingRejectsMissingUserAndUnknownMembers() throws Exception {
+        String slot = "\"branch\":\"moscow\",\"date\":\"" + day(14)
+            + "\",\"startTime\":\"09:00\",\"endTime\":\"10:00\"";
+
+        JsonNode noUser = json(performWithinBudget("POST /api/bookings/team", post("/api/bookings/team")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"size\":2," + slot + "}"))
+            .getResponse().getContentAsString());
+        assertFalse(noUser.path("success").asBoolean(), noUser.toString());
+
+        JsonNode unknown = json(performWithinBudget("POST /api/bookings/team", post("/api/bookings/team")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\":\"user\",\"members\":[\"user\",\"ghost\"]," + slot + "}"))
+            .getResponse().getContentAsString());
+        assertFalse(unknown.path("success").asBoolean(), unknown.toString());
+        assertTrue(unknown.path("error").asText().contains("ghost"), unknown.toString());
+    }
+
+    private String create(String workplaceId, String date, String startTime, String endTime) throws Exception {
+        JsonNode created = json(performWithinBudget("POST /api/bookings", post("/api/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\":\"user\",\"workplaceId\":\"" + workplaceId + "\",\"workplaceName\":\""
+                    + workplaceId + "\",\"branch\":\"moscow\",\"date\":\"" + date + "\",\"startTime\":\""
+                    + startTime + "\",\"endTime\":\"" + endTime + "\",\"purpose\":\"test\"}"))
+            .getResponse().getContentAsString());
+        assertTrue(created.path("success").asBoolean(), created.toString());
+        return created.path("id").asText();
+    }
+
+    private static String day(int daysAhead) {
+        return LocalDate.now().plusDays(daysAhead).format(BookingService.DATE_FORMAT);
+    }
+
+    private JsonNode json(String body) throws Exception {
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,76 @@
+package com.booking.controller;
+
+import com.booking.config.IoAccountingFilter;
+import com.booking.service.IoAccountingService;
+import com.booking.util.IoBudget;
+import com.booking.util.IoStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Общая основа тестов бюджета обращений к хранилищу
+ * Приложение поднимается на локальной файловой системе (file:///) во временной папке,
+ * каждый запрос проверяется по бюджету booking.io.budgets из application.properties.
+ * Ограничение частоты запросов отключено: все тесты общего контекста идут с одного адреса
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+abstract class IoBudgetTestSupport {
+
+    private static final Path ROOT = createRoot();
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    private IoAccountingService accountingService;
+
+    @DynamicPropertySource
+    static void storageProperties(DynamicPropertyRegistry registry) {
+        registry.add("hdfs.uri", () -> "file:///");
+        registry.add("hdfs.root", () -> ROOT.resolve("hdfs").toString());
+        registry.add("hadoop.home.dir", () -> ROOT.toString());
+        registry.add("hdfs.latency.enabled", () -> "false");
+        registry.add("booking.ratelimit.enabled", () -> "false");
+        registry.add("booking.checkpoint.local-dir", () -> ROOT.resolve("checkpoint").toString());
+        registry.add("logging.level.org.apache.hadoop", () -> "WARN");
+        registry.add("logging.level.com.booking", () -> "INFO");
+    }
+
+    /**
+     * Выполняет запрос и проверяет, что он уложился в бюджет своего эндпоинта
+     * @param endpoint ключ бюджета ("МЕТОД /шаблон"), он же должен совпасть с сопоставленным Spring
+     */
+    protected MvcResult performWithinBudget(String endpoint, RequestBuilder request) throws Exception {
+        IoBudget budget = accountingService.getBudget();
+        assertNotNull(budget.limitFor(endpoint), "Для " + endpoint + " не задан бюджет");
+
+        MvcResult result = mockMvc.perform(request).andReturn();
+        IoStats stats = (IoStats) result.getRequest().getAttribute(IoAccountingFilter.STATS_ATTRIBUTE);
+        assertNotNull(stats, "Запрос не прошёл через фильтр учёта");
+        assertEquals(200, result.getResponse().getStatus(), result.getResponse().getContentAsString());
+
+        budget.assertWithin(endpoint, stats);
+        return result;
+    }
+
+    private static Path createRoot() {
+        try {
+            return Files.createTempDirectory("booking-io-budget");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.booking.service;
+
+import com.booking.model.Booking;
+import org.junit.jupiter.api.Test;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Вытеснение старых дней из индекса: словарь, цепочки и хеш-таблица ID
+ * остаются согласованными и когда вытеснять нечего, и после сдвига строк
+ */
+class BookingIndexTest {
+
+    private static final String UUID_ID = "0f8fad5b-d9cb-469f-a165-70867728950e";
+
+    @Test
+    void evictionWithNothingToEvictKeepsIndexIntact() {
+        BookingIndex index = new BookingIndex();
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        index.put(booking(UUID_ID, "wp-1", tomorrow));
+        index.put(booking("legacy-1", "wp-2", tomorrow));
+
+        assertEquals(0, index.evictBefore(LocalDate.now()));
+
+        Booking legacy = index.get("legacy-1");
+        assertNotNull(legacy);
+        assertEquals("legacy-1", legacy.getId());
+        assertEquals("wp-2", legacy.getWorkplaceId());
+        assertEquals("user", legacy.getUserId());
+        assertEquals("wp-1", index.get(UUID_ID).getWorkplaceId());
+        assertFalse(index.isSlotFree("wp-2", tomorrow, 9 * 60, 10 * 60));
+    }
+
+    @Test
+    void evictionCompactsRowsAndRebuildsLookups() {
+        BookingIndex index = new BookingIndex();
+        LocalDate soon = LocalDate.now().plusDays(1);
+        LocalDate later = LocalDate.now().plusDays(5);
+        index.put(booking("legacy-old", "wp-1", soon));
+        index.put(booking(UUID_ID, "wp-1", later));
+        index.put(booking("legacy-1", "wp-2", later));
+
+        assertEquals(1, index.evictBefore(LocalDate.now().plusDays(2)));
+
+        assertEquals(2, index.size());
+        assertNull(index.get("legacy-old"));
+        assertEquals("legacy-1", index.get("legacy-1").getId());
+        assertEquals(later.format(BookingService.DATE_FORMAT), index.get(UUID_ID).getDate());
+        assertTrue(index.isSlotFree("wp-1", soon, 9 * 60, 10 * 60));
+        assertFalse(index.isSlotFree("wp-1", later, 9 * 60, 10 * 60));
+        assertEquals(1, index.findActiveByWorkplace("wp-2").size());
+    }
+
+    private static Booking booking(String id, String workplaceId, LocalDate date) {
+        return new Booking(id, "user", workplaceId, workplaceId, "moscow",
+            date.format(BookingService.DATE_FORMAT), "09:00", "10:00", "test", "confirmed");
+    }
+}
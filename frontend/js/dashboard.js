@@ -619,6 +619,21 @@ class Dashboard {
             return;
         }
         
+        // Удерживаем место, пока пользователь подтверждает бронирование
+        const hold = await window.mockAPI.holdSlot({
+            userId: this.user.username,
+            workplaceId: workplace.id,
+            date: date,
+            startTime: startTime,
+            endTime: endTime
+        });
+        
+        if (!hold.success) {
+            document.getElementById('book-btn').classList.remove('visible');
+            this.showError(hold.error || 'Место уже занято, выберите другое время');
+            return;
+        }
+        
         const modal = document.getElementById('booking-modal');
         const modalDetails = document.getElementById('modal-details');
         
@@ -653,7 +668,8 @@ class Dashboard {
             date: date,
             startTime: startTime,
             endTime: endTime,
-            purpose: purpose
+            purpose: purpose,
+            holdId: hold.holdId
         };
     }
     
@@ -676,9 +692,15 @@ class Dashboard {
     
     /**
      * Закрытие модального окна
+     * Если бронирование не подтверждено, удержание места снимается
      */
     closeModal() {
         document.getElementById('booking-modal').style.display = 'none';
+        
+        if (this.pendingBooking && this.pendingBooking.holdId) {
+            window.mockAPI.releaseHold(this.pendingBooking.holdId);
+        }
+        this.pendingBooking = null;
     }
     
     /**
@@ -694,6 +716,7 @@ class Dashboard {
         const result = await window.mockAPI.createBooking(bookingData);
         
         if (result.success) {
+            this.pendingBooking = null;  // удержание снято сервером при создании
             this.showSuccess('Бронирование успешно создано!');
             document.getElementById('booking-modal').style.display = 'none';
             this.loadUserBookings();
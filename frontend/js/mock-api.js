@@ -6,6 +6,10 @@
 // Базовый URL бэкенда
 const API_BASE_URL = 'http://localhost:8080/api';
 
+// Сколько миллисекунд кэшированный ответ отдаётся без обращения к серверу;
+// после этого он перепроверяется по ETag (ответ 304 без тела)
+const CACHE_FRESH_MS = 2000;
+
 /**
  * Класс для работы с API бэкенда
  * Содержит методы для всех операций: авторизация, бронирования, рабочие места
@@ -14,6 +18,103 @@ class MockAPI {
     constructor() {
         console.log('Подключение к бэкенду:', API_BASE_URL);
         this.currentUser = null;
+        // URL -> Promise выполняющегося GET-запроса (одинаковые запросы объединяются)
+        this.inFlight = new Map();
+        // URL -> { etag, data, fetchedAt } последнего успешного ответа
+        this.cache = new Map();
+        // URL -> номер инвалидации; ответ на более ранний запрос в кэш не записывается
+        this.epochs = new Map();
+    }
+
+    // ============= КЭШ ЗАПРОСОВ =============
+
+    /**
+     * GET-запрос JSON с объединением одинаковых запросов и кэшем по ETag.
+     * Пока запрос выполняется, повторные вызовы получают тот же Promise;
+     * свежий ответ отдаётся из кэша, устаревший перепроверяется через If-None-Match
+     * @param {string} url - полный адрес запроса
+     * @param {Object} options - { maxAge } время свежести в мс (Infinity - без перепроверки)
+     * @returns {Promise<any>} копия данных ответа (вызывающий код может её изменять)
+     */
+    async getJson(url, { maxAge = CACHE_FRESH_MS } = {}) {
+        const cached = this.cache.get(url);
+        if (cached && Date.now() - cached.fetchedAt < maxAge) {
+            return structuredClone(cached.data);
+        }
+
+        let request = this.inFlight.get(url);
+        if (!request) {
+            request = this.revalidate(url, cached).finally(() => {
+                // Удаляем только свой запрос: после инвалидации мог начаться новый
+                if (this.inFlight.get(url) === request) {
+                    this.inFlight.delete(url);
+                }
+            });
+            this.inFlight.set(url, request);
+        }
+        return structuredClone(await request);
+    }
+
+    /**
+     * Запрос к серверу с условным заголовком; 304 продлевает кэшированный ответ
+     */
+    async revalidate(url, cached) {
+        const epoch = this.epochs.get(url) || 0;
+        const headers = cached && cached.etag ? { 'If-None-Match': cached.etag } : {};
+        const response = await fetch(url, { headers, cache: 'no-store' });
+
+        if (response.status === 304 && cached) {
+            cached.fetchedAt = Date.now();
+            return cached.data;
+        }
+        if (!response.ok) {
+            throw new Error(`Ошибка ответа: ${response.status}`);
+        }
+
+        const data = await response.json();
+        const etag = response.headers.get('ETag');
+        // Ответ на запрос, начатый до инвалидации, в кэш не попадает
+        if ((this.epochs.get(url) || 0) === epoch) {
+            this.cache.set(url, { etag, data, fetchedAt: Date.now() });
+        }
+        return data;
+    }
+
+    /**
+     * Сбрасывает кэш и выполняющиеся запросы бронирований, которые затрагивает изменение
+     * @param {Object} change - { userId, workplaceId, bookingId } (известные поля)
+     */
+    invalidateBookings({ userId, workplaceId, bookingId } = {}) {
+        const affected = [];
+        if (userId) {
+            affected.push(`${API_BASE_URL}/bookings?userId=${encodeURIComponent(userId)}`);
+        }
+        if (workplaceId) {
+            affected.push(`${API_BASE_URL}/bookings/by-place?workplaceId=${workplaceId}`);
+        }
+        // Отмена по ID: место известно только из кэшированных списков с этим бронированием
+        if (bookingId) {
+            for (const [url, entry] of this.cache) {
+                if (Array.isArray(entry.data) && entry.data.some(b => b && b.id === bookingId)) {
+                    affected.push(url);
+                }
+            }
+        }
+
+        for (const url of affected) {
+            this.cache.delete(url);
+            this.inFlight.delete(url);
+            this.epochs.set(url, (this.epochs.get(url) || 0) + 1);
+        }
+        console.log('Кэш бронирований сброшен:', affected);
+    }
+
+    /**
+     * ID текущего пользователя из localStorage
+     */
+    currentUserId() {
+        const user = JSON.parse(localStorage.getItem('user') || 'null');
+        return user && user.username ? user.username : null;
     }
 
     // ============= АВТОРИЗАЦИЯ =============
@@ -63,9 +164,9 @@ class MockAPI {
      */
     async getWorkplaces(branch) {
         try {
-            const response = await fetch(`${API_BASE_URL}/workplaces?branch=${branch}`);
-            if (!response.ok) throw new Error('Ошибка загрузки рабочих мест');
-            const workplaces = await response.json();
+            // Каталог мест не меняется во время работы сервера: перепроверка не нужна
+            const workplaces = await this.getJson(`${API_BASE_URL}/workplaces?branch=${branch}`,
+                { maxAge: Infinity });
             console.log(`Загружено ${workplaces.length} мест для филиала ${branch}`);
             return workplaces;
         } catch (error) {
@@ -82,14 +183,7 @@ class MockAPI {
     async getBookingsByPlace(workplaceId) {
         try {
             console.log(`Запрос бронирований для места: ${workplaceId}`);
-            const response = await fetch(`${API_BASE_URL}/bookings/by-place?workplaceId=${workplaceId}`);
-            
-            if (!response.ok) {
-                console.error('Ошибка ответа:', response.status);
-                return [];
-            }
-            
-            const bookings = await response.json();
+            const bookings = await this.getJson(`${API_BASE_URL}/bookings/by-place?workplaceId=${workplaceId}`);
             console.log(`Загружено ${bookings.length} бронирований для места ${workplaceId}`);
             return bookings;
         } catch (error) {
@@ -109,15 +203,7 @@ class MockAPI {
         try {
             console.log(`Запрос бронирований для userId: ${userId}`);
             
-            const url = `${API_BASE_URL}/bookings?userId=${encodeURIComponent(userId)}`;
-            const response = await fetch(url);
-            
-            if (!response.ok) {
-                console.error('Ошибка ответа:', response.status);
-                return [];
-            }
-            
-            const bookings = await response.json();
+            const bookings = await this.getJson(`${API_BASE_URL}/bookings?userId=${encodeURIComponent(userId)}`);
             console.log(`Получено ${bookings.length} бронирований для ${userId}:`, bookings);
             return bookings;
             
@@ -154,8 +240,10 @@ class MockAPI {
             
             console.log('Отправляемый userId:', userId);
             
+            // holdId передаётся отдельно: удержание превращается в бронирование
+            const { holdId, ...fields } = bookingData;
             const booking = {
-                ...bookingData,
+                ...fields,
                 userId: userId,
                 status: 'confirmed',
                 id: null
@@ -163,7 +251,8 @@ class MockAPI {
             
             console.log('Полные данные бронирования:', booking);
             
-            const response = await fetch(`${API_BASE_URL}/bookings`, {
+            const query = holdId ? `?holdId=${encodeURIComponent(holdId)}` : '';
+            const response = await fetch(`${API_BASE_URL}/bookings${query}`, {
                 method: 'POST',
                 headers: { 'Content-Type': 'application/json' },
                 body: JSON.stringify(booking)
@@ -171,6 +260,9 @@ class MockAPI {
 
             const result = await response.json();
             console.log('Ответ сервера:', result);
+            if (result.success) {
+                this.invalidateBookings({ userId, workplaceId: booking.workplaceId });
+            }
             return result;
             
         } catch (error) {
@@ -179,6 +271,40 @@ class MockAPI {
         }
     }
 
+    /**
+     * Удерживает слот на время диалога подтверждения
+     * @param {Object} slot - userId, workplaceId, date, startTime, endTime
+     * @returns {Promise<Object>} результат с success, holdId и expiresAt
+     */
+    async holdSlot(slot) {
+        try {
+            const response = await fetch(`${API_BASE_URL}/bookings/hold`, {
+                method: 'POST',
+                headers: { 'Content-Type': 'application/json' },
+                body: JSON.stringify(slot)
+            });
+            
+            const result = await response.json();
+            console.log('Удержание места:', result);
+            return result;
+        } catch (error) {
+            console.error('Ошибка удержания места:', error);
+            return { success: false, error: error.message };
+        }
+    }
+
+    /**
+     * Снимает удержание слота (диалог закрыт без подтверждения)
+     * @param {string} holdId - ID удержания
+     */
+    async releaseHold(holdId) {
+        try {
+            await fetch(`${API_BASE_URL}/bookings/hold/${holdId}`, { method: 'DELETE' });
+        } catch (error) {
+            console.error('Ошибка снятия удержания:', error);
+        }
+    }
+
     /**
      * Отменяет бронирование по ID
      * @param {string} bookingId - ID бронирования
@@ -194,6 +320,7 @@ class MockAPI {
             
             const result = await response.json();
             console.log('Бронирование отменено:', result);
+            this.invalidateBookings({ userId: this.currentUserId(), bookingId });
             return result;
         } catch (error) {
             console.error('Ошибка отмены:', error);
@@ -218,6 +345,12 @@ class MockAPI {
             url.searchParams.append('date', date);
             url.searchParams.append('startTime', startTime);
             url.searchParams.append('endTime', endTime);
+            
+            // Собственные удержания пользователя не считаются занятостью
+            const user = JSON.parse(localStorage.getItem('user') || 'null');
+            if (user && user.username) {
+                url.searchParams.append('userId', user.username);
+            }
 
             const response = await fetch(url);
             if (!response.ok) {
@@ -0,0 +1,78 @@
+package com.booking.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * LatencyRecorder - накопитель замеров одного эндпоинта
+ * Каждый виртуальный пользователь пишет в свой экземпляр (без синхронизации),
+ * в конце теста экземпляры сливаются и сортируются для расчёта перцентилей
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private long errors;
+    private long rejected;
+
+    /**
+     * Записывает результат одного запроса
+     * @param nanos длительность запроса
+     * @param status HTTP-статус (0 - сетевая ошибка)
+     * @param failed ответ 2xx, но в теле отказ ("success": false или "error")
+     */
+    public void record(long nanos, int status, boolean failed) {
+        if (status == 429) {
+            rejected++;
+            return;
+        }
+        if (status < 200 || status >= 300 || failed) {
+            errors++;
+        }
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    /**
+     * Добавляет замеры другого накопителя
+     */
+    public void merge(LatencyRecorder other) {
+        if (count + other.count > samples.length) {
+            samples = Arrays.copyOf(samples, count + other.count);
+        }
+        System.arraycopy(other.samples, 0, samples, count, other.count);
+        count += other.count;
+        errors += other.errors;
+        rejected += other.rejected;
+    }
+
+    public int getCount() { return count; }
+
+    public long getErrors() { return errors; }
+
+    public long getRejected() { return rejected; }
+
+    /**
+     * Сортирует замеры; вызывается один раз перед расчётом перцентилей
+     */
+    public void seal() {
+        Arrays.sort(samples, 0, count);
+    }
+
+    /**
+     * Перцентиль в миллисекундах (после seal)
+     * @param p доля от 0 до 1 (например, 0.99)
+     */
+    public double percentileMillis(double p) {
+        if (count == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * count) - 1;
+        return samples[Math.max(0, Math.min(index, count - 1))] / 1_000_000.0;
+    }
+
+    public double maxMillis() {
+        return count == 0 ? 0 : samples[count - 1] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,165 @@
+package com.booking.loadtest;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * LoadGenerator - нагрузочный тест бэкенда бронирования
+ * Запускает заданное число виртуальных пользователей, которые воспроизводят
+ * смесь запросов (вход, карта мест, проверка, создание, отмена, списки бронирований),
+ * и печатает пропускную способность и p50/p99/p999 по каждому эндпоинту.
+ * Ошибкой считается и ответ 200 с отказом в теле ("success": false).
+ * Без --rate цикл замкнутый: пока ответ задерживается, пользователь не отправляет
+ * новых запросов, и перцентили получаются оптимистичными (coordinated omission).
+ *
+ * Бэкенд запускается с профилем loadtest (локальная ФС с имитацией задержек HDFS):
+ *   java -jar backend/target/hdfs-booking-backend-1.0.0.jar --spring.profiles.active=loadtest
+ * Генератор:
+ *   java -jar loadtest/target/booking-loadtest-1.0.0.jar --users=32 --duration=60 --warmup=10
+ *
+ * Параметры:
+ *   --url=http://localhost:8080/api   адрес API
+ *   --users=32                        число виртуальных пользователей (потоков)
+ *   --duration=60                     длительность замера, секунд
+ *   --warmup=10                       прогрев перед замером, секунд
+ *   --think-ms=0                      среднее время между запросами пользователя (замкнутый цикл)
+ *   --rate=0                          целевая общая частота, req/s: открытый цикл по расписанию,
+ *                                     задержка считается от запланированной отправки
+ *   --mix=check:25,create:10,...      веса операций (остальные - по умолчанию)
+ *   --csv=report.csv                  дополнительно сохранить отчёт в CSV
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+
+        String baseUrl = options.getOrDefault("url", "http://localhost:8080/api");
+        int users = Integer.parseInt(options.getOrDefault("users", "32"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        long thinkMillis = Long.parseLong(options.getOrDefault("think-ms", "0"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        // Каждый пользователь отправляет свою долю общей частоты
+        long intervalNanos = rate > 0 ? (long) (users * 1_000_000_000L / rate) : 0;
+        Operation[] wheel = buildWheel(options.get("mix"));
+
+        System.out.println("Нагрузка на " + baseUrl + ": пользователей " + users
+            + ", прогрев " + warmup + " с, замер " + duration + " с, "
+            + (rate > 0 ? "открытый цикл " + rate + " req/s" : "замкнутый цикл"));
+
+        HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+        long start = System.nanoTime();
+        long warmupEnd = start + Duration.ofSeconds(warmup).toNanos();
+        long end = warmupEnd + Duration.ofSeconds(duration).toNanos();
+
+        List<VirtualUser> virtualUsers = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            VirtualUser user = new VirtualUser(client, baseUrl, i, wheel, warmupEnd, end, thinkMillis, intervalNanos);
+            Thread thread = new Thread(user, "vu-" + i);
+            virtualUsers.add(user);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Map<Operation, LatencyRecorder> merged = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            LatencyRecorder total = new LatencyRecorder();
+            for (VirtualUser user : virtualUsers) {
+                total.merge(user.getRecorders().get(operation));
+            }
+            total.seal();
+            merged.put(operation, total);
+        }
+
+        printReport(merged, duration, rate > 0);
+        if (options.containsKey("csv")) {
+            writeCsv(Path.of(options.get("csv")), merged, duration);
+        }
+    }
+
+    private static void printReport(Map<Operation, LatencyRecorder> recorders, int duration, boolean openLoop) {
+        System.out.println();
+        System.out.println(openLoop
+            ? "Открытый цикл: задержка от запланированного момента отправки"
+            : "Замкнутый цикл: перцентили без поправки на coordinated omission (занижены при перегрузке)");
+        System.out.printf("%-12s %9s %8s %8s %10s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "errors", "429", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+
+        long totalRequests = 0;
+        for (Map.Entry<Operation, LatencyRecorder> entry : recorders.entrySet()) {
+            LatencyRecorder r = entry.getValue();
+            totalRequests += r.getCount();
+            System.out.printf("%-12s %9d %8d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                entry.getKey().getKey(), r.getCount(), r.getErrors(), r.getRejected(),
+                (double) r.getCount() / duration,
+                r.percentileMillis(0.50), r.percentileMillis(0.99), r.percentileMillis(0.999), r.maxMillis());
+        }
+        System.out.printf("%nВсего: %d запросов, %.1f req/s%n", totalRequests, (double) totalRequests / duration);
+    }
+
+    private static void writeCsv(Path file, Map<Operation, LatencyRecorder> recorders, int duration) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("endpoint,requests,errors,rejected,rps,p50_ms,p99_ms,p999_ms,max_ms");
+            for (Map.Entry<Operation, LatencyRecorder> entry : recorders.entrySet()) {
+                LatencyRecorder r = entry.getValue();
+                out.printf(Locale.ROOT, "%s,%d,%d,%d,%.2f,%.3f,%.3f,%.3f,%.3f%n",
+                    entry.getKey().getKey(), r.getCount(), r.getErrors(), r.getRejected(),
+                    (double) r.getCount() / duration,
+                    r.percentileMillis(0.50), r.percentileMillis(0.99), r.percentileMillis(0.999), r.maxMillis());
+            }
+        }
+        System.out.println("Отчёт сохранён: " + file);
+    }
+
+    /**
+     * Раскладывает веса операций в "колесо": операция с весом w занимает w ячеек
+     */
+    private static Operation[] buildWheel(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            weights.put(operation, operation.getDefaultWeight());
+        }
+        if (mix != null && !mix.isEmpty()) {
+            for (String part : mix.split(",")) {
+                String[] kv = part.split(":");
+                weights.put(Operation.byKey(kv[0].trim()), Integer.parseInt(kv[1].trim()));
+            }
+        }
+
+        List<Operation> wheel = new ArrayList<>();
+        weights.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                wheel.add(operation);
+            }
+        });
+        if (wheel.isEmpty()) {
+            throw new IllegalArgumentException("Все веса операций равны нулю");
+        }
+        return wheel.toArray(new Operation[0]);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,40 @@
+package com.booking.loadtest;
+
+/**
+ * Operation - типы запросов, из которых складывается нагрузка
+ * Веса по умолчанию соответствуют типичному "утру в офисе": много просмотров
+ * карты и проверок доступности, меньше созданий и отмен
+ */
+public enum Operation {
+    LOGIN("login", 5),
+    WORKPLACES("workplaces", 20),
+    CHECK_AVAILABILITY("check", 25),
+    CREATE("create", 10),
+    CANCEL("cancel", 5),
+    MY_BOOKINGS("my-bookings", 20),
+    BY_PLACE("by-place", 15);
+
+    private final String key;
+    private final int defaultWeight;
+
+    Operation(String key, int defaultWeight) {
+        this.key = key;
+        this.defaultWeight = defaultWeight;
+    }
+
+    public String getKey() { return key; }
+
+    public int getDefaultWeight() { return defaultWeight; }
+
+    /**
+     * Поиск операции по ключу из параметра --mix
+     */
+    public static Operation byKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестная операция: " + key);
+    }
+}
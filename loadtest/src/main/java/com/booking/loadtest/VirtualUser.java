@@ -0,0 +1,214 @@
+package com.booking.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * VirtualUser - один виртуальный сотрудник
+ * Выбирает операцию по весам, выполняет запрос и записывает задержку.
+ * В замкнутом цикле следующий запрос уходит после ответа и "времени на размышление";
+ * в открытом (задан интервал) запросы идут по расписанию, а задержка отсчитывается
+ * от запланированного момента отправки, поэтому медленный ответ не прячет
+ * ожидание запросов, которые должны были уйти за это время (coordinated omission)
+ */
+public class VirtualUser implements Runnable {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*\"([^\"]+)\"");
+    // Приложение сообщает об отказе в теле ответа со статусом 200
+    private static final Pattern FAILURE_PATTERN = Pattern.compile("\"success\"\\s*:\\s*false|\"error\"\\s*:");
+    private static final String[][] ACCOUNTS = {
+        { "admin", "admin123" }, { "user", "user123" }, { "employee1", "123456" }
+    };
+    private static final String[] WORKPLACES = buildWorkplaces();
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String userId;
+    private final Operation[] wheel;
+    private final long warmupEndNanos;
+    private final long endNanos;
+    private final long thinkMillis;
+    private final long intervalNanos;
+    private final Random random;
+    private final Deque<String> createdIds = new ArrayDeque<>();
+    private final Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+
+    public VirtualUser(HttpClient client, String baseUrl, int index, Operation[] wheel,
+                       long warmupEndNanos, long endNanos, long thinkMillis, long intervalNanos) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.userId = "loadtest-" + index;
+        this.wheel = wheel;
+        this.warmupEndNanos = warmupEndNanos;
+        this.endNanos = endNanos;
+        this.thinkMillis = thinkMillis;
+        this.intervalNanos = intervalNanos;
+        this.random = new Random(index);
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new LatencyRecorder());
+        }
+    }
+
+    public Map<Operation, LatencyRecorder> getRecorders() { return recorders; }
+
+    @Override
+    public void run() {
+        // Случайная фаза расписания, чтобы пользователи не отправляли запросы одновременно
+        long intended = System.nanoTime() + (intervalNanos > 0 ? (long) (random.nextDouble() * intervalNanos) : 0);
+        while (true) {
+            if (intervalNanos > 0) {
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    try {
+                        Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            } else {
+                intended = System.nanoTime();
+            }
+            if (intended >= endNanos) {
+                return;
+            }
+
+            Operation operation = wheel[random.nextInt(wheel.length)];
+            if (operation == Operation.CANCEL && createdIds.isEmpty()) {
+                operation = Operation.CREATE;
+            }
+
+            HttpResponse<String> response = execute(operation);
+            long finished = System.nanoTime();
+
+            if (intended >= warmupEndNanos) {
+                int status = response != null ? response.statusCode() : 0;
+                boolean failed = response != null && FAILURE_PATTERN.matcher(response.body()).find();
+                recorders.get(operation).record(finished - intended, status, failed);
+            }
+
+            if (intervalNanos > 0) {
+                intended += intervalNanos;
+            } else if (thinkMillis > 0) {
+                try {
+                    Thread.sleep(random.nextInt((int) thinkMillis * 2 + 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Выполняет операцию
+     * @return ответ или null при сетевой ошибке
+     */
+    private HttpResponse<String> execute(Operation operation) {
+        try {
+            switch (operation) {
+                case LOGIN: {
+                    String[] account = ACCOUNTS[random.nextInt(ACCOUNTS.length)];
+                    return post("/auth/login", "{\"username\":\"" + account[0]
+                        + "\",\"password\":\"" + account[1] + "\"}");
+                }
+                case WORKPLACES:
+                    return get("/workplaces?branch=" + (random.nextBoolean() ? "moscow" : "spb"));
+                case CHECK_AVAILABILITY: {
+                    int hour = 9 + random.nextInt(8);
+                    return get("/bookings/check-availability?workplaceId=" + randomWorkplace()
+                        + "&date=" + randomDate()
+                        + "&startTime=" + String.format("%02d:00", hour)
+                        + "&endTime=" + String.format("%02d:00", hour + 1));
+                }
+                case CREATE: {
+                    String workplace = randomWorkplace();
+                    int hour = 9 + random.nextInt(8);
+                    HttpResponse<String> response = post("/bookings", "{"
+                        + "\"userId\":\"" + userId + "\","
+                        + "\"workplaceId\":\"" + workplace + "\","
+                        + "\"workplaceName\":\"" + workplace + "\","
+                        + "\"branch\":\"" + workplace.substring(0, workplace.indexOf('-')) + "\","
+                        + "\"date\":\"" + randomDate() + "\","
+                        + "\"startTime\":\"" + String.format("%02d:00", hour) + "\","
+                        + "\"endTime\":\"" + String.format("%02d:00", hour + 1) + "\","
+                        + "\"purpose\":\"loadtest\"}");
+                    Matcher matcher = ID_PATTERN.matcher(response.body());
+                    if (!FAILURE_PATTERN.matcher(response.body()).find() && matcher.find()) {
+                        createdIds.add(matcher.group(1));
+                    }
+                    return response;
+                }
+                case CANCEL: {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/bookings/" + createdIds.poll()))
+                        .timeout(Duration.ofSeconds(30)).DELETE().build();
+                    return client.send(request, HttpResponse.BodyHandlers.ofString());
+                }
+                case MY_BOOKINGS:
+                    return get("/bookings?userId=" + URLEncoder.encode(userId, StandardCharsets.UTF_8));
+                case BY_PLACE:
+                    return get("/bookings/by-place?workplaceId=" + randomWorkplace());
+                default:
+                    return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(30)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String randomWorkplace() {
+        return WORKPLACES[random.nextInt(WORKPLACES.length)];
+    }
+
+    private String randomDate() {
+        return LocalDate.now().plusDays(random.nextInt(14)).format(DATE_FORMAT);
+    }
+
+    /**
+     * ID мест совпадают с каталогом WorkplaceService бэкенда
+     */
+    private static String[] buildWorkplaces() {
+        String[] ids = new String[38];
+        int i = 0;
+        for (int n = 1; n <= 15; n++) ids[i++] = "moscow-wp-" + n;
+        for (int n = 1; n <= 3; n++) ids[i++] = "moscow-neg-" + n;
+        for (int n = 1; n <= 2; n++) ids[i++] = "moscow-conf-" + n;
+        for (int n = 1; n <= 15; n++) ids[i++] = "spb-wp-" + n;
+        for (int n = 1; n <= 2; n++) ids[i++] = "spb-neg-" + n;
+        ids[i] = "spb-conf-1";
+        return ids;
+    }
+}